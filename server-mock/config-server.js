@@ -1,15 +1,30 @@
 const {createServer} = require('http');
+const crypto = require('crypto');
 const fs = require('fs');
+const zlib = require('zlib');
 
 const server = createServer(function (req, res) {
-    if (req.url === '/global') {
+    const path = req.url.split('?')[0];
+    if (path === '/global') {
         console.log("Global Connection");
         const data = fs.readFileSync('./global.json', 'utf8');
-        res.writeHead(200, {'Content-Type': 'application/json'});
+        const etag = '"' + crypto.createHash('sha256').update(data).digest('hex') + '"';
+        if (req.headers['if-none-match'] === etag) {
+            res.writeHead(304, {'ETag': etag});
+            res.end();
+            return;
+        }
+        const headers = {'Content-Type': 'application/json', 'ETag': etag};
+        if ((req.headers['accept-encoding'] || '').includes('gzip')) {
+            headers['Content-Encoding'] = 'gzip';
+            res.writeHead(200, headers);
+            res.end(zlib.gzipSync(data));
+            return;
+        }
+        res.writeHead(200, headers);
         res.write(data);
         res.end();
     }
 });
 
 server.listen(9010);
-
@@ -0,0 +1,91 @@
+package io.archura.router.buffer;
+
+import io.archura.router.config.GlobalConfiguration;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Pool of 'archura.buffer.size' byte buffers used to copy request and response bodies.
+ * At most 'archura.buffer.pool.size' buffers are kept, buffers are allocated when the pool is empty,
+ * and dropped when they are released to a full pool.
+ * Buffers are not bound to threads, since every request runs on its own virtual thread.
+ */
+@Component
+public class BufferPool {
+
+    private final int bufferSize;
+    private final BlockingQueue<byte[]> buffers;
+    private final LongAdder allocations = new LongAdder();
+    private final LongAdder reuses = new LongAdder();
+
+    public BufferPool(final GlobalConfiguration globalConfiguration) {
+        this.bufferSize = Math.max(1, globalConfiguration.getBufferSize());
+        this.buffers = new ArrayBlockingQueue<>(Math.max(1, globalConfiguration.getBufferPoolSize()));
+    }
+
+    /**
+     * Returns a buffer from the pool or a new one, the buffer should be released after use.
+     */
+    public byte[] acquire() {
+        final byte[] buffer = buffers.poll();
+        if (isNull(buffer)) {
+            allocations.increment();
+            return new byte[bufferSize];
+        }
+        reuses.increment();
+        return buffer;
+    }
+
+    /**
+     * Returns the buffer to the pool, the buffer must not be used after it is released.
+     */
+    public void release(final byte[] buffer) {
+        if (buffer.length == bufferSize) {
+            buffers.offer(buffer);
+        }
+    }
+
+    /**
+     * Copies the input stream to the output stream with a pooled buffer, returns the number of bytes copied.
+     * Unlike {@link InputStream#transferTo(OutputStream)}, no buffer is allocated for each copy.
+     */
+    public long copy(final InputStream inputStream, final OutputStream outputStream) throws IOException {
+        final byte[] buffer = acquire();
+        try {
+            long total = 0;
+            int length;
+            while ((length = inputStream.read(buffer)) != -1) {
+                outputStream.write(buffer, 0, length);
+                total += length;
+            }
+            return total;
+        } finally {
+            release(buffer);
+        }
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public long getPooled() {
+        return buffers.size();
+    }
+
+    public long getAllocations() {
+        return allocations.sum();
+    }
+
+    public long getReuses() {
+        return reuses.sum();
+    }
+
+}
@@ -0,0 +1,19 @@
+package io.archura.router.cache;
+
+import java.util.List;
+
+/**
+ * Cacheable request that missed the {@link ResponseCache}, its response is stored when it is cacheable.
+ *
+ * @param key        cache key of the request
+ * @param ttl        time to live override in milliseconds, 0 uses the freshness of the response
+ * @param keyHeaders names of the request headers that are part of the key
+ * @param authorized whether the request has an 'Authorization' header
+ */
+public record CacheRequest(
+        String key,
+        long ttl,
+        List<String> keyHeaders,
+        boolean authorized
+) {
+}
@@ -0,0 +1,140 @@
+package io.archura.router.cache;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Response stored in the {@link ResponseCache}, headers are kept in parallel arrays and the body in a single buffer.
+ * The body buffer is a heap buffer for the in-memory tier, or a read only slice of a memory mapped file for the {@link DiskCache}.
+ */
+public class CachedResponse {
+
+    private static final int ENTRY_OVERHEAD = 96;
+
+    private final int status;
+    private final String contentType;
+    private final String[] headerNames;
+    private final String[] headerValues;
+    private final ByteBuffer body;
+    private final long storedAt;
+    private final long expiresAt;
+    private final int size;
+
+    public CachedResponse(
+            final int status,
+            final String contentType,
+            final String[] headerNames,
+            final String[] headerValues,
+            final ByteBuffer body,
+            final long storedAt,
+            final long expiresAt
+    ) {
+        this.status = status;
+        this.contentType = contentType;
+        this.headerNames = headerNames;
+        this.headerValues = headerValues;
+        this.body = body;
+        this.storedAt = storedAt;
+        this.expiresAt = expiresAt;
+        int headersSize = 0;
+        for (int i = 0; i < headerNames.length; i++) {
+            headersSize += headerNames[i].length() + headerValues[i].length();
+        }
+        this.size = ENTRY_OVERHEAD + body.remaining() + headersSize;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public int getHeaderCount() {
+        return headerNames.length;
+    }
+
+    public String getHeaderName(final int index) {
+        return headerNames[index];
+    }
+
+    public String getHeaderValue(final int index) {
+        return headerValues[index];
+    }
+
+    String[] getHeaderNames() {
+        return headerNames;
+    }
+
+    String[] getHeaderValues() {
+        return headerValues;
+    }
+
+    public int getBodyLength() {
+        return body.remaining();
+    }
+
+    /**
+     * Writes the body to the output stream, a body in a memory mapped file is transferred through the given buffer.
+     */
+    public void writeBody(final OutputStream outputStream, final byte[] buffer) throws IOException {
+        if (body.hasArray()) {
+            outputStream.write(body.array(), body.arrayOffset() + body.position(), body.remaining());
+            return;
+        }
+        final ByteBuffer source = body.duplicate();
+        while (source.hasRemaining()) {
+            final int length = Math.min(buffer.length, source.remaining());
+            source.get(buffer, 0, length);
+            outputStream.write(buffer, 0, length);
+        }
+    }
+
+    /**
+     * Returns a copy of the response with the body on the heap.
+     */
+    public CachedResponse copyToHeap() {
+        if (body.hasArray()) {
+            return this;
+        }
+        final byte[] bytes = new byte[body.remaining()];
+        body.duplicate().get(bytes);
+        return withBody(ByteBuffer.wrap(bytes));
+    }
+
+    ByteBuffer getBody() {
+        return body.duplicate();
+    }
+
+    CachedResponse withBody(final ByteBuffer newBody) {
+        return new CachedResponse(status, contentType, headerNames, headerValues, newBody, storedAt, expiresAt);
+    }
+
+    /**
+     * Returns the time the response was stored, in epoch milliseconds.
+     */
+    public long getStoredAt() {
+        return storedAt;
+    }
+
+    /**
+     * Returns the time the response expires, in epoch milliseconds.
+     */
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    /**
+     * Returns the approximate number of bytes the response takes in the cache, including its body.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    public boolean isExpired(final long now) {
+        return now >= expiresAt;
+    }
+
+}
@@ -0,0 +1,478 @@
+package io.archura.router.cache;
+
+import io.archura.router.config.GlobalConfiguration;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Second tier of the {@link ResponseCache}, keeps responses in memory mapped segment files under 'archura.response.cache.disk.path'.
+ * Responses are appended to the newest segment file, and only an index of the keys to the mapped regions is kept on the heap,
+ * so the cached bodies do not grow the Java heap.
+ * When the segment files exceed 'archura.response.cache.disk.max-bytes', the oldest segment file is deleted,
+ * segment files whose responses have all expired are deleted when a new segment file is started.
+ * The index is rebuilt from the segment files on start, so the cached responses survive restarts.
+ * Each record is: magic (4 bytes), record length (4 bytes), stored at (8 bytes), expires at (8 bytes), status (4 bytes),
+ * key, content type, header count (4 bytes), header names and values, body length (4 bytes), body;
+ * strings are written as length (4 bytes, -1 for null) and UTF-8 bytes.
+ * The space of a record is reserved in the newest segment file under the lock, then the record is written straight into the mapping,
+ * so the body is not copied into an intermediate record on the heap.
+ * The magic is written last, so a record that was not completely written ends the segment file on start,
+ * an abandoned record is written as expired and skipped on start.
+ */
+@Slf4j
+@Component
+public class DiskCache {
+
+    private static final int MAGIC = 0x41524443;
+    private static final int RECORD_HEADER_SIZE = 4 + 4 + 8 + 8 + 4;
+    private static final String SEGMENT_FILE_PREFIX = "segment-";
+    private static final String SEGMENT_FILE_SUFFIX = ".cache";
+
+    private final Path directory;
+    private final long maximumSize;
+    private final int segmentSize;
+    private final int maximumEntrySize;
+    private final Map<String, Entry> index = new ConcurrentHashMap<>();
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LongAdder evictions = new LongAdder();
+    private long nextSegmentId;
+    private boolean enabled;
+
+    public DiskCache(final GlobalConfiguration globalConfiguration) {
+        this.directory = globalConfiguration.getResponseCacheDiskPath();
+        this.segmentSize = (int) Math.min(Integer.MAX_VALUE, Math.max(0, globalConfiguration.getResponseCacheDiskSegmentBytes()));
+        this.maximumSize = Math.max(globalConfiguration.getResponseCacheDiskMaxBytes(), 2L * segmentSize);
+        this.maximumEntrySize = (int) Math.min(segmentSize, Math.max(0, globalConfiguration.getResponseCacheDiskMaxEntryBytes()));
+        if (nonNull(directory) && globalConfiguration.getResponseCacheDiskMaxBytes() > 0 && segmentSize > 0) {
+            try {
+                load();
+                enabled = true;
+            } catch (IOException e) {
+                log.error("Disk response cache is disabled, could not load segment files from '{}'", directory, e);
+                closeSegments();
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the maximum body size of the responses stored on disk.
+     */
+    public int getMaximumEntrySize() {
+        return enabled ? maximumEntrySize : 0;
+    }
+
+    /**
+     * Returns the fresh response stored for the key, its body is a read only slice of the mapped segment file.
+     */
+    public Optional<CachedResponse> get(final String key, final long now) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        final Entry entry = index.get(key);
+        if (isNull(entry)) {
+            return Optional.empty();
+        }
+        if (entry.response().isExpired(now)) {
+            index.remove(key, entry);
+            return Optional.empty();
+        }
+        return Optional.of(entry.response());
+    }
+
+    /**
+     * Appends the response to the newest segment file, responses larger than the maximum entry size are not stored.
+     */
+    public void put(final String key, final CachedResponse cachedResponse) {
+        reserve(key, cachedResponse.getStatus(), cachedResponse.getContentType(), cachedResponse.getHeaderNames(), cachedResponse.getHeaderValues(),
+                cachedResponse.getStoredAt(), cachedResponse.getExpiresAt(), cachedResponse.getBodyLength())
+                .ifPresent(reservation -> {
+                    reservation.write(cachedResponse.getBody());
+                    reservation.commit();
+                });
+    }
+
+    /**
+     * Reserves the record of a response with the given body length in the newest segment file and writes everything but its body.
+     * The body is written into the reservation, and the response is stored once the reservation is committed.
+     */
+    Optional<Reservation> reserve(
+            final String key,
+            final int status,
+            final String contentType,
+            final String[] headerNames,
+            final String[] headerValues,
+            final long storedAt,
+            final long expiresAt,
+            final int bodyLength
+    ) {
+        if (!enabled || bodyLength > maximumEntrySize) {
+            return Optional.empty();
+        }
+        final byte[][] strings = new byte[2 + 2 * headerNames.length][];
+        strings[0] = key.getBytes(StandardCharsets.UTF_8);
+        strings[1] = nonNull(contentType) ? contentType.getBytes(StandardCharsets.UTF_8) : null;
+        for (int i = 0; i < headerNames.length; i++) {
+            strings[2 + 2 * i] = headerNames[i].getBytes(StandardCharsets.UTF_8);
+            strings[3 + 2 * i] = headerValues[i].getBytes(StandardCharsets.UTF_8);
+        }
+        long recordLength = RECORD_HEADER_SIZE + 4 + 4 + (long) bodyLength;
+        for (byte[] string : strings) {
+            recordLength += 4 + (nonNull(string) ? string.length : 0);
+        }
+        if (recordLength > segmentSize) {
+            return Optional.empty();
+        }
+        final Segment segment;
+        final int offset;
+        lock.lock();
+        try {
+            Segment newest = segments.peekLast();
+            if (isNull(newest) || newest.position + recordLength > newest.buffer.capacity()) {
+                newest = createSegment(storedAt);
+            }
+            segment = newest;
+            offset = segment.position;
+            segment.position += (int) recordLength;
+            segment.expiresAt = Math.max(segment.expiresAt, expiresAt);
+        } catch (IOException e) {
+            log.error("Could not store response in disk cache, key: '{}'", key, e);
+            return Optional.empty();
+        } finally {
+            lock.unlock();
+        }
+        final MappedByteBuffer buffer = segment.buffer;
+        int position = offset + 4;
+        buffer.putInt(position, (int) recordLength);
+        buffer.putLong(position + 4, storedAt);
+        buffer.putLong(position + 12, expiresAt);
+        buffer.putInt(position + 20, status);
+        position += 24;
+        position = writeString(buffer, position, strings[0]);
+        position = writeString(buffer, position, strings[1]);
+        buffer.putInt(position, headerNames.length);
+        position += 4;
+        for (int i = 2; i < strings.length; i++) {
+            position = writeString(buffer, position, strings[i]);
+        }
+        buffer.putInt(position, bodyLength);
+        final CachedResponse response = new CachedResponse(status, contentType, headerNames, headerValues,
+                slice(segment, position + 4, bodyLength), storedAt, expiresAt);
+        return Optional.of(new Reservation(key, segment, offset, position + 4, response));
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public int getEntries() {
+        return index.size();
+    }
+
+    /**
+     * Returns the number of bytes of the segment files.
+     */
+    public long getSize() {
+        lock.lock();
+        try {
+            long size = 0;
+            for (Segment segment : segments) {
+                size += segment.buffer.capacity();
+            }
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Maps the existing segment files and indexes their fresh records, the newest record of a key wins.
+     */
+    private void load() throws IOException {
+        Files.createDirectories(directory);
+        final List<Path> paths = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(path -> nonNull(segmentId(path))).forEach(paths::add);
+        }
+        paths.sort((first, second) -> Long.compare(segmentId(first), segmentId(second)));
+        final long now = System.currentTimeMillis();
+        for (Path path : paths) {
+            final Segment segment = mapSegment(path, segmentId(path), Files.size(path));
+            segments.addLast(segment);
+            nextSegmentId = segment.id + 1;
+            readRecords(segment, now);
+        }
+        deleteSegments(now);
+        log.info("Disk response cache loaded {} responses from {} segment files in '{}'", index.size(), segments.size(), directory);
+    }
+
+    private void readRecords(final Segment segment, final long now) {
+        final ByteBuffer buffer = segment.buffer.duplicate();
+        int position = 0;
+        while (position + RECORD_HEADER_SIZE <= buffer.capacity() && buffer.getInt(position) == MAGIC) {
+            final int recordLength = buffer.getInt(position + 4);
+            if (recordLength < RECORD_HEADER_SIZE || recordLength > buffer.capacity() - position) {
+                break;
+            }
+            buffer.position(position + 8).limit(position + recordLength);
+            try {
+                readRecord(segment, buffer, now);
+            } catch (RuntimeException e) {
+                log.warn("Ignoring the rest of the disk cache segment file '{}', invalid record at {}", segment.path, position);
+                break;
+            }
+            buffer.limit(buffer.capacity());
+            position += recordLength;
+        }
+        segment.position = position;
+    }
+
+    private void readRecord(final Segment segment, final ByteBuffer buffer, final long now) {
+        final long storedAt = buffer.getLong();
+        final long expiresAt = buffer.getLong();
+        final int status = buffer.getInt();
+        final String key = readString(buffer);
+        final String contentType = readString(buffer);
+        final int headerCount = buffer.getInt();
+        final String[] headerNames = new String[headerCount];
+        final String[] headerValues = new String[headerCount];
+        for (int i = 0; i < headerCount; i++) {
+            headerNames[i] = readString(buffer);
+            headerValues[i] = readString(buffer);
+        }
+        final int bodyLength = buffer.getInt();
+        if (bodyLength != buffer.remaining()) {
+            throw new IllegalStateException("Body length does not match the record length.");
+        }
+        segment.expiresAt = Math.max(segment.expiresAt, expiresAt);
+        if (expiresAt > now) {
+            final ByteBuffer body = slice(segment, buffer.position(), bodyLength);
+            index.put(key, new Entry(segment, new CachedResponse(status, contentType, headerNames, headerValues, body, storedAt, expiresAt)));
+        }
+    }
+
+    /**
+     * Starts a new segment file, and deletes the expired and the oldest segment files to stay within the maximum size.
+     */
+    private Segment createSegment(final long now) throws IOException {
+        deleteSegments(now);
+        while (segments.size() > 0 && (long) (segments.size() + 1) * segmentSize > maximumSize) {
+            deleteSegment(segments.peekFirst());
+        }
+        final long id = nextSegmentId++;
+        final Segment segment = mapSegment(directory.resolve("%s%016d%s".formatted(SEGMENT_FILE_PREFIX, id, SEGMENT_FILE_SUFFIX)), id, segmentSize);
+        segments.addLast(segment);
+        return segment;
+    }
+
+    private void deleteSegments(final long now) {
+        for (Segment segment : new ArrayList<>(segments)) {
+            if (segment != segments.peekLast() && segment.expiresAt <= now) {
+                deleteSegment(segment);
+            }
+        }
+    }
+
+    /**
+     * Removes the responses of the segment from the index and deletes its file.
+     * The mapping stays valid until it is garbage collected, so responses that are being written to clients are not affected.
+     */
+    private void deleteSegment(final Segment segment) {
+        segments.remove(segment);
+        int removed = 0;
+        for (Map.Entry<String, Entry> entry : index.entrySet()) {
+            if (entry.getValue().segment() == segment && index.remove(entry.getKey(), entry.getValue())) {
+                removed++;
+            }
+        }
+        evictions.add(removed);
+        try {
+            segment.channel.close();
+            Files.deleteIfExists(segment.path);
+        } catch (IOException e) {
+            log.error("Could not delete disk cache segment file '{}'", segment.path, e);
+        }
+    }
+
+    private void closeSegments() {
+        for (Segment segment : segments) {
+            try {
+                segment.channel.close();
+            } catch (IOException e) {
+                log.debug("Could not close disk cache segment file '{}'", segment.path, e);
+            }
+        }
+        segments.clear();
+        index.clear();
+    }
+
+    private static Segment mapSegment(final Path path, final long id, final long size) throws IOException {
+        final FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.min(size, Integer.MAX_VALUE));
+            return new Segment(id, path, channel, buffer);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static ByteBuffer slice(final Segment segment, final int offset, final int length) {
+        return segment.buffer.slice(offset, length).asReadOnlyBuffer();
+    }
+
+    /**
+     * Writes the string at the position of the buffer and returns the position after it.
+     */
+    private static int writeString(final ByteBuffer buffer, final int position, final byte[] string) {
+        if (isNull(string)) {
+            buffer.putInt(position, -1);
+            return position + 4;
+        }
+        buffer.putInt(position, string.length);
+        buffer.put(position + 4, string);
+        return position + 4 + string.length;
+    }
+
+    private static String readString(final ByteBuffer buffer) {
+        final int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        final byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static Long segmentId(final Path path) {
+        final String fileName = path.getFileName().toString();
+        if (!fileName.startsWith(SEGMENT_FILE_PREFIX) || !fileName.endsWith(SEGMENT_FILE_SUFFIX)) {
+            return null;
+        }
+        try {
+            return Long.parseLong(fileName.substring(SEGMENT_FILE_PREFIX.length(), fileName.length() - SEGMENT_FILE_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private record Entry(Segment segment, CachedResponse response) {
+    }
+
+    /**
+     * Record reserved in a segment file, the body is written with absolute puts into the mapping.
+     * Committing a completely written body stores the response, anything else writes the record as expired.
+     */
+    class Reservation {
+        private final String key;
+        private final Segment segment;
+        private final int offset;
+        private final int bodyOffset;
+        private final CachedResponse response;
+        private int written;
+        private boolean done;
+
+        private Reservation(final String key, final Segment segment, final int offset, final int bodyOffset, final CachedResponse response) {
+            this.key = key;
+            this.segment = segment;
+            this.offset = offset;
+            this.bodyOffset = bodyOffset;
+            this.response = response;
+        }
+
+        int getBodyLength() {
+            return response.getBodyLength();
+        }
+
+        void write(final byte[] bytes, final int offset, final int count) {
+            checkRemaining(count);
+            segment.buffer.put(bodyOffset + written, bytes, offset, count);
+            written += count;
+        }
+
+        void write(final ByteBuffer source) {
+            checkRemaining(source.remaining());
+            segment.buffer.put(bodyOffset + written, source, source.position(), source.remaining());
+            written += source.remaining();
+        }
+
+        void commit() {
+            if (done) {
+                return;
+            }
+            if (written != response.getBodyLength()) {
+                abandon();
+                return;
+            }
+            done = true;
+            segment.buffer.putInt(offset, MAGIC);
+            lock.lock();
+            try {
+                // the segment may have been deleted while the body was written
+                if (segments.contains(segment)) {
+                    index.put(key, new Entry(segment, response));
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void abandon() {
+            if (done) {
+                return;
+            }
+            done = true;
+            segment.buffer.putLong(offset + 16, 0L);
+            segment.buffer.putInt(offset, MAGIC);
+        }
+
+        private void checkRemaining(final int count) {
+            if (done || count > response.getBodyLength() - written) {
+                throw new IllegalStateException("Body does not fit the reserved disk cache record.");
+            }
+        }
+    }
+
+    private static class Segment {
+        private final long id;
+        private final Path path;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private int position;
+        private long expiresAt;
+
+        private Segment(final long id, final Path path, final FileChannel channel, final MappedByteBuffer buffer) {
+            this.id = id;
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+    }
+
+}
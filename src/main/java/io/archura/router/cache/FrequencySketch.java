@@ -0,0 +1,79 @@
+package io.archura.router.cache;
+
+/**
+ * Count-min sketch of 4-bit counters estimating how often keys were seen recently, used for TinyLFU admission.
+ * Every counter is incremented in 4 rows, the estimate is the minimum of the 4 counters.
+ * After 10 increments per counter slot, all counters are halved, so old popularity fades away.
+ * Not thread safe, callers guard the sketch with their own lock.
+ */
+class FrequencySketch {
+
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L,
+            0xb492b66fbe98f273L,
+            0x9ae16a3b2f90404fL,
+            0xcbf29ce484222325L
+    };
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final int MAXIMUM_COUNT = 15;
+
+    private final long[] table;
+    private final int tableMask;
+    private final int sampleSize;
+    private int size;
+
+    /**
+     * Creates a sketch for about the given number of distinct keys.
+     */
+    FrequencySketch(final int expectedSize) {
+        final int width = Integer.highestOneBit(Math.max(64, Math.min(expectedSize, 1 << 24)) - 1) << 1;
+        this.table = new long[width];
+        this.tableMask = width - 1;
+        this.sampleSize = 10 * width;
+    }
+
+    int frequency(final int hash) {
+        int frequency = MAXIMUM_COUNT;
+        for (int row = 0; row < SEEDS.length; row++) {
+            final int offset = counterOffset(hash, row);
+            frequency = Math.min(frequency, (int) ((table[indexOf(hash, row)] >>> offset) & 0xfL));
+        }
+        return frequency;
+    }
+
+    void increment(final int hash) {
+        boolean incremented = false;
+        for (int row = 0; row < SEEDS.length; row++) {
+            final int index = indexOf(hash, row);
+            final int offset = counterOffset(hash, row);
+            if (((table[index] >>> offset) & 0xfL) != MAXIMUM_COUNT) {
+                table[index] += 1L << offset;
+                incremented = true;
+            }
+        }
+        if (incremented && ++size == sampleSize) {
+            reset();
+        }
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        size /= 2;
+    }
+
+    private int indexOf(final int hash, final int row) {
+        long h = (hash + SEEDS[row]) * SEEDS[row];
+        h += h >>> 32;
+        return (int) h & tableMask;
+    }
+
+    /**
+     * Returns the bit offset of the row's counter among the 16 counters of a table slot.
+     */
+    private static int counterOffset(final int hash, final int row) {
+        return ((hash >>> (row << 3)) & 0xf) << 2;
+    }
+
+}
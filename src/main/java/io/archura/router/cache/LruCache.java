@@ -0,0 +1,206 @@
+package io.archura.router.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Size bounded cache with least recently used eviction.
+ * Entries are spread over segments by key hash, each segment is an access ordered map guarded by its own lock,
+ * locks are used instead of synchronized blocks so virtual threads are not pinned.
+ * With admission, each segment also keeps a {@link FrequencySketch} of the keys looked up in it,
+ * and a new entry is cached in a full segment only if its key was looked up more often than the least recently used key,
+ * so one-off keys do not push frequently used entries out of the cache.
+ */
+public class LruCache<K, V> {
+
+    private static final int SEGMENT_COUNT = 16;
+
+    private final Segment<K, V>[] segments;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+
+    public LruCache(final int maximumSize) {
+        this(maximumSize, false);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public LruCache(final int maximumSize, final boolean admission) {
+        final int segmentCount = Math.max(1, Math.min(SEGMENT_COUNT, maximumSize));
+        final int segmentSize = Math.max(1, maximumSize / segmentCount);
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment<>(segmentSize, admission, evictions, rejections);
+        }
+    }
+
+    /**
+     * Returns the cached value, or computes, caches and returns it.
+     * The value is computed outside the lock, concurrent callers may compute the same value more than once.
+     */
+    public V get(final K key, final Function<K, V> loader) {
+        final int hash = spread(key.hashCode());
+        final Segment<K, V> segment = segment(hash);
+        final V cached = segment.get(key, hash);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        final V loaded = loader.apply(key);
+        if (loaded != null) {
+            segment.put(key, hash, loaded);
+        }
+        return loaded;
+    }
+
+    public V get(final K key) {
+        final int hash = spread(key.hashCode());
+        final V cached = segment(hash).get(key, hash);
+        if (cached != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return cached;
+    }
+
+    public void put(final K key, final V value) {
+        final int hash = spread(key.hashCode());
+        segment(hash).put(key, hash, value);
+    }
+
+    public V remove(final K key) {
+        return segment(spread(key.hashCode())).remove(key);
+    }
+
+    public void clear() {
+        for (Segment<K, V> segment : segments) {
+            segment.clear();
+        }
+    }
+
+    public long size() {
+        long size = 0;
+        for (Segment<K, V> segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Returns the number of new entries that were not cached, because their keys were looked up less often than the entries they would evict.
+     */
+    public long getRejections() {
+        return rejections.sum();
+    }
+
+    private Segment<K, V> segment(final int hash) {
+        return segments[(hash & 0x7fffffff) % segments.length];
+    }
+
+    private static int spread(final int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static class Segment<K, V> {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashMap<K, V> entries;
+        private final int maximumSize;
+        private final FrequencySketch sketch;
+        private final LongAdder rejections;
+
+        private Segment(final int maximumSize, final boolean admission, final LongAdder evictions, final LongAdder rejections) {
+            this.maximumSize = maximumSize;
+            this.sketch = admission ? new FrequencySketch(maximumSize) : null;
+            this.rejections = rejections;
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(final Map.Entry<K, V> eldest) {
+                    if (size() > maximumSize) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        private V get(final K key, final int hash) {
+            lock.lock();
+            try {
+                if (sketch != null) {
+                    sketch.increment(hash);
+                }
+                return entries.get(key);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void put(final K key, final int hash, final V value) {
+            lock.lock();
+            try {
+                if (sketch != null && entries.size() >= maximumSize && !entries.containsKey(key) && !admit(hash)) {
+                    rejections.increment();
+                    return;
+                }
+                entries.put(key, value);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Admits a new key only if it was looked up more often than the least recently used key, which it would evict.
+         */
+        private boolean admit(final int hash) {
+            final K eldest = entries.keySet().iterator().next();
+            return sketch.frequency(hash) > sketch.frequency(spread(eldest.hashCode()));
+        }
+
+        private V remove(final K key) {
+            lock.lock();
+            try {
+                return entries.remove(key);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void clear() {
+            lock.lock();
+            try {
+                entries.clear();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private int size() {
+            lock.lock();
+            try {
+                return entries.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+}
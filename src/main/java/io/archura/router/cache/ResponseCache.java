@@ -0,0 +1,434 @@
+package io.archura.router.cache;
+
+import io.archura.router.config.GlobalConfiguration;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.net.http.HttpHeaders;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static io.archura.router.filter.ArchuraKeys.RESTRICTED_HEADER_NAMES;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Shared HTTP response cache bounded by 'archura.response.cache.max-bytes' bytes.
+ * Entries are spread over segments by key hash, each segment is an access ordered map with its own byte budget,
+ * guarded by its own lock, and a {@link FrequencySketch} of the keys requested from the segment.
+ * A new response is admitted only if it was requested more often than the least recently used responses it would evict,
+ * so one-off requests do not push popular responses out of the cache.
+ * Responses are stored for the 's-maxage', 'max-age' or 'Expires' freshness of the upstream response,
+ * or for the time to live of the caching filter configuration, and are never revalidated.
+ * When the {@link DiskCache} is enabled, stored responses are also written through to disk,
+ * responses larger than the maximum entry size of the memory tier are stored only on disk,
+ * and responses found only on disk are offered to the memory tier when they are small enough.
+ */
+@Slf4j
+@Component
+public class ResponseCache {
+
+    private static final int SEGMENT_COUNT = 16;
+    private static final int AVERAGE_ENTRY_SIZE = 4096;
+    private static final Set<Integer> CACHEABLE_STATUSES = Set.of(200, 203, 204, 300, 301, 308, 404, 405, 410, 414, 501);
+    private static final Set<String> EXCLUDED_HEADER_NAMES = Set.of("age", "set-cookie", "keep-alive", "proxy-connection", "te", "trailer");
+
+    private final Segment[] segments;
+    private final DiskCache diskCache;
+    private final int maximumEntrySize;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+
+    public ResponseCache(final GlobalConfiguration globalConfiguration, final DiskCache diskCache) {
+        this.diskCache = diskCache;
+        final long maximumSize = Math.max(0, globalConfiguration.getResponseCacheMaxBytes());
+        this.maximumEntrySize = (int) Math.min(Integer.MAX_VALUE, Math.max(0, globalConfiguration.getResponseCacheMaxEntryBytes()));
+        this.segments = new Segment[maximumSize > 0 ? SEGMENT_COUNT : 0];
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new Segment(maximumSize / SEGMENT_COUNT);
+        }
+    }
+
+    public boolean isEnabled() {
+        return isMemoryEnabled() || diskCache.isEnabled();
+    }
+
+    /**
+     * Returns the fresh response cached for the key, from memory or from disk, expired responses are removed.
+     */
+    public Optional<CachedResponse> get(final String key) {
+        if (!isEnabled()) {
+            return Optional.empty();
+        }
+        final int hash = spread(key.hashCode());
+        final long now = System.currentTimeMillis();
+        if (isMemoryEnabled()) {
+            final CachedResponse cachedResponse = segment(hash).get(key, hash, now);
+            if (nonNull(cachedResponse)) {
+                hits.increment();
+                return Optional.of(cachedResponse);
+            }
+        }
+        final Optional<CachedResponse> diskResponse = diskCache.get(key, now);
+        if (diskResponse.isEmpty()) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        if (isMemoryEnabled() && diskResponse.get().getBodyLength() <= maximumEntrySize) {
+            putInMemory(key, hash, diskResponse.get().copyToHeap(), now);
+        }
+        return diskResponse;
+    }
+
+    /**
+     * Stores the response in memory if the admission policy lets it in, and writes it through to disk.
+     */
+    public void put(final String key, final CachedResponse cachedResponse) {
+        final long now = System.currentTimeMillis();
+        if (isMemoryEnabled() && cachedResponse.getBodyLength() <= maximumEntrySize) {
+            putInMemory(key, spread(key.hashCode()), cachedResponse, now);
+        }
+        diskCache.put(key, cachedResponse);
+    }
+
+    /**
+     * Stores the captured response, responses larger than the maximum entry size of both tiers are dropped.
+     * A response captured into a disk cache record is committed, other responses are stored from the capture buffer,
+     * which is trimmed only for the memory tier.
+     */
+    public void put(final ResponseCapture responseCapture) {
+        if (responseCapture.isOverflowed()) {
+            return;
+        }
+        if (responseCapture.isReserved()) {
+            responseCapture.commit();
+            return;
+        }
+        final boolean inMemory = isMemoryEnabled() && responseCapture.getLength() <= maximumEntrySize;
+        put(responseCapture.getCacheRequest().key(), responseCapture.toCachedResponse(inMemory));
+    }
+
+    /**
+     * Starts capturing the response of the request if it is cacheable, i.e. the upstream response has a cacheable status,
+     * the upstream response allows shared caching, and its body is not larger than the maximum entry size.
+     * The headers of the captured response are the headers of the servlet response, after the post-filters ran.
+     * A response with a known length that is stored only on disk is captured into a reserved disk cache record.
+     */
+    public Optional<ResponseCapture> capture(
+            final CacheRequest cacheRequest,
+            final int status,
+            final HttpHeaders upstreamHeaders,
+            final HttpServletResponse httpServletResponse
+    ) {
+        if (!isEnabled() || !CACHEABLE_STATUSES.contains(status)) {
+            return Optional.empty();
+        }
+        final int maximumCaptureSize = Math.max(isMemoryEnabled() ? maximumEntrySize : 0, diskCache.getMaximumEntrySize());
+        final long contentLength = upstreamHeaders.firstValueAsLong("content-length").orElse(-1);
+        if (contentLength > maximumCaptureSize) {
+            return Optional.empty();
+        }
+        final long now = System.currentTimeMillis();
+        final long ttl = timeToLive(cacheRequest, upstreamHeaders, now);
+        if (ttl <= 0) {
+            return Optional.empty();
+        }
+        final List<String> headerNames = new ArrayList<>();
+        final List<String> headerValues = new ArrayList<>();
+        for (String headerName : httpServletResponse.getHeaderNames()) {
+            final String lowerCaseName = headerName.toLowerCase();
+            if (!RESTRICTED_HEADER_NAMES.contains(lowerCaseName) && !EXCLUDED_HEADER_NAMES.contains(lowerCaseName)) {
+                for (String headerValue : httpServletResponse.getHeaders(headerName)) {
+                    headerNames.add(headerName);
+                    headerValues.add(headerValue);
+                }
+            }
+        }
+        final String contentType = httpServletResponse.getContentType();
+        final String[] names = headerNames.toArray(String[]::new);
+        final String[] values = headerValues.toArray(String[]::new);
+        DiskCache.Reservation reservation = null;
+        if (contentLength >= 0 && (!isMemoryEnabled() || contentLength > maximumEntrySize)) {
+            final Optional<DiskCache.Reservation> diskReservation = diskCache.reserve(
+                    cacheRequest.key(), status, contentType, names, values, now, now + ttl, (int) contentLength);
+            if (diskReservation.isEmpty()) {
+                return Optional.empty();
+            }
+            reservation = diskReservation.get();
+        }
+        return Optional.of(new ResponseCapture(
+                cacheRequest,
+                status,
+                contentType,
+                names,
+                values,
+                now,
+                now + ttl,
+                maximumCaptureSize,
+                contentLength,
+                reservation
+        ));
+    }
+
+    /**
+     * Returns how long the response can be served from the cache in milliseconds, 0 if it must not be cached.
+     */
+    static long timeToLive(final CacheRequest cacheRequest, final HttpHeaders upstreamHeaders, final long now) {
+        if (upstreamHeaders.firstValue("set-cookie").isPresent() || !isVaryCovered(cacheRequest, upstreamHeaders)) {
+            return 0;
+        }
+        final Map<String, String> directives = cacheControlDirectives(upstreamHeaders);
+        if (directives.containsKey("no-store") || directives.containsKey("private")) {
+            return 0;
+        }
+        // a shared cache stores responses of authorized requests only if the upstream explicitly allows it
+        if (cacheRequest.authorized()
+                && !directives.containsKey("public")
+                && !directives.containsKey("s-maxage")
+                && !directives.containsKey("must-revalidate")) {
+            return 0;
+        }
+        if (cacheRequest.ttl() > 0) {
+            return cacheRequest.ttl();
+        }
+        if (directives.containsKey("no-cache")) {
+            return 0;
+        }
+        final long sharedMaxAge = seconds(directives.get("s-maxage"));
+        if (sharedMaxAge >= 0) {
+            return sharedMaxAge * 1000;
+        }
+        final long maxAge = seconds(directives.get("max-age"));
+        if (maxAge >= 0) {
+            return maxAge * 1000;
+        }
+        final Optional<String> expires = upstreamHeaders.firstValue("expires");
+        if (expires.isPresent()) {
+            final long expiresAt = httpDate(expires.get(), -1);
+            final long date = upstreamHeaders.firstValue("date").map(value -> httpDate(value, now)).orElse(now);
+            return expiresAt > date ? expiresAt - date : 0;
+        }
+        return 0;
+    }
+
+    /**
+     * Returns true if every header the response varies on is part of the cache key.
+     */
+    private static boolean isVaryCovered(final CacheRequest cacheRequest, final HttpHeaders upstreamHeaders) {
+        for (String vary : upstreamHeaders.allValues("vary")) {
+            for (String headerName : vary.split(",")) {
+                final String name = headerName.trim();
+                if (name.isEmpty()) {
+                    continue;
+                }
+                if (name.equals("*") || cacheRequest.keyHeaders().stream().noneMatch(name::equalsIgnoreCase)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static Map<String, String> cacheControlDirectives(final HttpHeaders headers) {
+        final Map<String, String> directives = new LinkedHashMap<>();
+        for (String cacheControl : headers.allValues("cache-control")) {
+            for (String directive : cacheControl.split(",")) {
+                final int equals = directive.indexOf('=');
+                if (equals < 0) {
+                    directives.put(directive.trim().toLowerCase(), "");
+                } else {
+                    final String value = directive.substring(equals + 1).trim();
+                    directives.put(directive.substring(0, equals).trim().toLowerCase(), value.replace("\"", ""));
+                }
+            }
+        }
+        return directives;
+    }
+
+    private static long seconds(final String value) {
+        if (isNull(value)) {
+            return -1;
+        }
+        try {
+            return Math.max(0, Long.parseLong(value));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static long httpDate(final String value, final long defaultValue) {
+        try {
+            return ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return defaultValue;
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Returns the number of responses the admission policy did not let in.
+     */
+    public long getRejections() {
+        return rejections.sum();
+    }
+
+    /**
+     * Returns the approximate number of bytes of the responses cached in memory.
+     */
+    public long getSize() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    private boolean isMemoryEnabled() {
+        return segments.length > 0;
+    }
+
+    private void putInMemory(final String key, final int hash, final CachedResponse cachedResponse, final long now) {
+        if (!segment(hash).put(key, hash, cachedResponse, now, evictions)) {
+            rejections.increment();
+        }
+    }
+
+    private Segment segment(final int hash) {
+        return segments[(hash & 0x7fffffff) % segments.length];
+    }
+
+    private static int spread(final int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static class Segment {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<String, CachedResponse> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private final FrequencySketch sketch;
+        private final long maximumSize;
+        private long size;
+
+        private Segment(final long maximumSize) {
+            this.maximumSize = maximumSize;
+            this.sketch = new FrequencySketch((int) Math.min(Integer.MAX_VALUE, maximumSize / AVERAGE_ENTRY_SIZE));
+        }
+
+        private CachedResponse get(final String key, final int hash, final long now) {
+            lock.lock();
+            try {
+                sketch.increment(hash);
+                final CachedResponse cachedResponse = entries.get(key);
+                if (nonNull(cachedResponse) && cachedResponse.isExpired(now)) {
+                    entries.remove(key);
+                    size -= cachedResponse.getSize();
+                    return null;
+                }
+                return cachedResponse;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private boolean put(
+                final String key,
+                final int hash,
+                final CachedResponse cachedResponse,
+                final long now,
+                final LongAdder evictions
+        ) {
+            if (cachedResponse.getSize() > maximumSize) {
+                return false;
+            }
+            lock.lock();
+            try {
+                final CachedResponse existing = entries.get(key);
+                final long required = size - (nonNull(existing) ? existing.getSize() : 0) + cachedResponse.getSize() - maximumSize;
+                if (required > 0 && !evict(key, hash, required, isNull(existing), now, evictions)) {
+                    return false;
+                }
+                final CachedResponse replaced = entries.put(key, cachedResponse);
+                if (nonNull(replaced)) {
+                    size -= replaced.getSize();
+                }
+                size += cachedResponse.getSize();
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Evicts the least recently used responses until the required bytes are free.
+         * With admission, nothing is evicted if any fresh victim was requested at least as often as the candidate.
+         */
+        private boolean evict(
+                final String key,
+                final int hash,
+                final long required,
+                final boolean admission,
+                final long now,
+                final LongAdder evictions
+        ) {
+            final int candidateFrequency = sketch.frequency(hash);
+            final List<String> victims = new ArrayList<>();
+            long freed = 0;
+            final Iterator<Map.Entry<String, CachedResponse>> iterator = entries.entrySet().iterator();
+            while (freed < required && iterator.hasNext()) {
+                final Map.Entry<String, CachedResponse> entry = iterator.next();
+                if (entry.getKey().equals(key)) {
+                    continue;
+                }
+                if (admission
+                        && !entry.getValue().isExpired(now)
+                        && sketch.frequency(spread(entry.getKey().hashCode())) >= candidateFrequency) {
+                    return false;
+                }
+                victims.add(entry.getKey());
+                freed += entry.getValue().getSize();
+            }
+            if (freed < required) {
+                return false;
+            }
+            for (String victim : victims) {
+                size -= entries.remove(victim).getSize();
+            }
+            evictions.add(victims.size());
+            return true;
+        }
+
+        private long size() {
+            lock.lock();
+            try {
+                return size;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+}
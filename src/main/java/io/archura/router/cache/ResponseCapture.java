@@ -0,0 +1,144 @@
+package io.archura.router.cache;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static java.util.Objects.nonNull;
+
+/**
+ * Copy of a cacheable response body taken while the body is written to the client.
+ * The copy is abandoned when the body grows larger than the maximum entry size of the cache.
+ * A response stored only on disk is copied straight into its reserved disk cache record instead of a heap buffer.
+ */
+public class ResponseCapture {
+
+    private final CacheRequest cacheRequest;
+    private final int status;
+    private final String contentType;
+    private final String[] headerNames;
+    private final String[] headerValues;
+    private final long storedAt;
+    private final long expiresAt;
+    private final int maximumSize;
+    private final DiskCache.Reservation reservation;
+    private byte[] body;
+    private int length;
+    private boolean overflowed;
+
+    ResponseCapture(
+            final CacheRequest cacheRequest,
+            final int status,
+            final String contentType,
+            final String[] headerNames,
+            final String[] headerValues,
+            final long storedAt,
+            final long expiresAt,
+            final int maximumSize,
+            final long contentLength,
+            final DiskCache.Reservation reservation
+    ) {
+        this.cacheRequest = cacheRequest;
+        this.status = status;
+        this.contentType = contentType;
+        this.headerNames = headerNames;
+        this.headerValues = headerValues;
+        this.storedAt = storedAt;
+        this.expiresAt = expiresAt;
+        this.reservation = reservation;
+        if (nonNull(reservation)) {
+            this.maximumSize = reservation.getBodyLength();
+        } else {
+            this.maximumSize = maximumSize;
+            this.body = new byte[contentLength >= 0 ? (int) Math.min(contentLength, maximumSize) : Math.min(8192, maximumSize)];
+        }
+    }
+
+    public void write(final byte[] bytes, final int offset, final int count) {
+        if (overflowed) {
+            return;
+        }
+        if (length + count > maximumSize) {
+            overflowed = true;
+            body = null;
+            abandon();
+            return;
+        }
+        if (nonNull(reservation)) {
+            reservation.write(bytes, offset, count);
+            length += count;
+            return;
+        }
+        if (length + count > body.length) {
+            body = Arrays.copyOf(body, Math.min(maximumSize, Math.max(length + count, body.length * 2)));
+        }
+        System.arraycopy(bytes, offset, body, length, count);
+        length += count;
+    }
+
+    /**
+     * Returns an output stream writing to the given output stream and to this capture.
+     */
+    public OutputStream tee(final OutputStream outputStream) {
+        return new OutputStream() {
+            @Override
+            public void write(final int b) throws IOException {
+                outputStream.write(b);
+                ResponseCapture.this.write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(final byte[] bytes, final int offset, final int count) throws IOException {
+                outputStream.write(bytes, offset, count);
+                ResponseCapture.this.write(bytes, offset, count);
+            }
+
+            @Override
+            public void flush() throws IOException {
+                outputStream.flush();
+            }
+        };
+    }
+
+    public CacheRequest getCacheRequest() {
+        return cacheRequest;
+    }
+
+    public boolean isOverflowed() {
+        return overflowed;
+    }
+
+    /**
+     * Releases the disk cache record of a response that is not stored, does nothing after the response is stored.
+     */
+    public void abandon() {
+        if (nonNull(reservation)) {
+            reservation.abandon();
+        }
+    }
+
+    boolean isReserved() {
+        return nonNull(reservation);
+    }
+
+    /**
+     * Stores the response captured into the disk cache record, a body shorter than the reserved length is abandoned.
+     */
+    void commit() {
+        reservation.commit();
+    }
+
+    int getLength() {
+        return length;
+    }
+
+    /**
+     * Returns the captured response, a compact body is trimmed to its length, otherwise the capture buffer is wrapped.
+     */
+    CachedResponse toCachedResponse(final boolean compact) {
+        final ByteBuffer cachedBody = !compact || length == body.length ? ByteBuffer.wrap(body, 0, length) : ByteBuffer.wrap(Arrays.copyOf(body, length));
+        return new CachedResponse(status, contentType, headerNames, headerValues, cachedBody, storedAt, expiresAt);
+    }
+
+}
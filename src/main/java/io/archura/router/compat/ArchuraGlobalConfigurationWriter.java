@@ -0,0 +1,22 @@
+package io.archura.router.compat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.archura.router.config.GlobalConfiguration;
+import io.archura.router.mapping.GlobalConfigurationWriter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+@Component
+@RequiredArgsConstructor
+public class ArchuraGlobalConfigurationWriter implements GlobalConfigurationWriter {
+
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public void write(final GlobalConfiguration globalConfiguration, final OutputStream outputStream) throws IOException {
+        objectMapper.writeValue(outputStream, globalConfiguration);
+    }
+}
@@ -0,0 +1,110 @@
+package io.archura.router.compat;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import io.archura.router.config.GlobalConfiguration;
+import io.archura.router.mapping.GlobalConfigurationReader;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Reads the global configuration from a stream without holding the whole JSON document in memory.
+ * The 'domains' object is split per domain, the tokens of every domain are buffered and mapped to its configuration on a virtual thread,
+ * at most a few buffered domains per core are waiting to be mapped at a time, so the parser waits when the mapping falls behind.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StreamingGlobalConfigurationReader implements GlobalConfigurationReader {
+
+    private static final String DOMAINS_FIELD = "domains";
+    private static final int PENDING_DOMAINS_PER_CORE = 4;
+
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public GlobalConfiguration read(final InputStream inputStream) throws IOException {
+        try (JsonParser parser = objectMapper.createParser(inputStream);
+             ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor()) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Global configuration must be a JSON object");
+            }
+            final ObjectNode globalNode = objectMapper.createObjectNode();
+            final Map<String, Future<GlobalConfiguration.DomainConfiguration>> domainFutures = new LinkedHashMap<>();
+            final Semaphore pendingDomains = new Semaphore(PENDING_DOMAINS_PER_CORE * Runtime.getRuntime().availableProcessors());
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String fieldName = parser.getCurrentName();
+                final JsonToken valueToken = parser.nextToken();
+                if (DOMAINS_FIELD.equals(fieldName) && valueToken == JsonToken.START_OBJECT) {
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        final String domain = parser.getCurrentName();
+                        parser.nextToken();
+                        final TokenBuffer domainTokens = new TokenBuffer(parser);
+                        domainTokens.copyCurrentStructure(parser);
+                        acquire(pendingDomains);
+                        domainFutures.put(domain, executorService.submit(() -> {
+                            try {
+                                return objectMapper.readValue(domainTokens.asParserOnFirstToken(), GlobalConfiguration.DomainConfiguration.class);
+                            } finally {
+                                pendingDomains.release();
+                            }
+                        }));
+                    }
+                } else {
+                    globalNode.set(fieldName, parser.readValueAsTree());
+                }
+            }
+            final GlobalConfiguration globalConfiguration = objectMapper.treeToValue(globalNode, GlobalConfiguration.class);
+            if (!domainFutures.isEmpty()) {
+                final Map<String, GlobalConfiguration.DomainConfiguration> domains = new LinkedHashMap<>();
+                for (Map.Entry<String, Future<GlobalConfiguration.DomainConfiguration>> entry : domainFutures.entrySet()) {
+                    domains.put(entry.getKey(), get(entry.getKey(), entry.getValue()));
+                }
+                globalConfiguration.setDomains(domains);
+            }
+            log.debug("Global configuration read, domains: {}", domainFutures.size());
+            return globalConfiguration;
+        }
+    }
+
+    private void acquire(final Semaphore semaphore) throws IOException {
+        try {
+            semaphore.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while reading global configuration");
+        }
+    }
+
+    private GlobalConfiguration.DomainConfiguration get(
+            final String domain,
+            final Future<GlobalConfiguration.DomainConfiguration> future
+    ) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while reading global configuration");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException("Failed to read configuration of domain '%s'".formatted(domain), e.getCause());
+        }
+    }
+}
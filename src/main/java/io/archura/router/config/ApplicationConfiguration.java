@@ -1,6 +1,7 @@
 package io.archura.router.config;
 
 import io.archura.router.compat.ArchuraObjectMapper;
+import io.archura.router.configuration.ConfigurationFileWatcher;
 import io.archura.router.configuration.GlobalConfigurationListener;
 import io.archura.router.mapping.Mapper;
 import io.archura.router.notification.NotificationServerConnector;
@@ -46,12 +47,19 @@ public class ApplicationConfiguration {
     public ApplicationRunner applicationRunner(
             final NotificationServerConnector notificationServerConnector,
             final GlobalConfigurationListener globalConfigurationListener,
+            final ConfigurationFileWatcher configurationFileWatcher,
             final GlobalConfiguration globalConfiguration
     ) {
         return args -> {
             if (nonNull(globalConfiguration.getFilePath())) {
                 globalConfigurationListener.loadFileConfiguration(globalConfiguration.getFilePath());
             }
+            // start from the last configuration fetched from the configuration server if there is one,
+            // the snapshot is only written by the configuration server, so the configuration file wins when it is not used
+            if (globalConfiguration.isDynamicConfigurationEnabled()) {
+                globalConfigurationListener.loadSnapshotConfiguration();
+            }
+            configurationFileWatcher.start();
             if (globalConfiguration.isDynamicConfigurationEnabled()) {
                 notificationServerConnector.connect();
             }
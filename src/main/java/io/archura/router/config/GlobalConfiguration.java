@@ -1,20 +1,30 @@
 package io.archura.router.config;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import io.archura.router.filter.FilterPipeline;
+import io.archura.router.routing.RouteIndex;
+import io.archura.router.template.Template;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 
+import java.net.http.HttpClient;
 import java.nio.file.Path;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.regex.Pattern;
 
 import static java.util.Objects.nonNull;
@@ -30,6 +40,15 @@ public class GlobalConfiguration {
     @Value("${archura.configuration.file.path}")
     private Path filePath;
 
+    @Value("${archura.configuration.file.watch.enabled:false}")
+    private boolean configurationFileWatchEnabled;
+
+    @Value("${archura.configuration.file.watch.debounce:200}")
+    private long configurationFileWatchDebounce;
+
+    @Value("${archura.configuration.snapshot.path:#{null}}")
+    private Path configurationSnapshotPath;
+
     @Value("${archura.dynamic.configuration.enabled:false}")
     private boolean dynamicConfigurationEnabled;
 
@@ -57,9 +76,77 @@ public class GlobalConfiguration {
     @Value("${archura.notification.server.retry.interval:10000}")
     private long notificationServerRetryInterval;
 
-    private Map<String, FilterConfiguration> preFilters = new HashMap<>();
-    private Map<String, FilterConfiguration> postFilters = new HashMap<>();
-    private Map<String, DomainConfiguration> domains = new HashMap<>();
+    @Value("${archura.route.match.cache.size:0}")
+    private int routeMatchCacheSize;
+
+    @Value("${archura.domain.cache.size:10000}")
+    private int domainCacheSize;
+
+    @Value("${archura.domain.preload.names:}")
+    private List<String> domainPreloadNames = new ArrayList<>();
+
+    @Value("${archura.domain.preload.parallelism:16}")
+    private int domainPreloadParallelism;
+
+    @Value("${archura.domain.not-found.cache.size:10000}")
+    private int domainNotFoundCacheSize;
+
+    @Value("${archura.domain.not-found.cache.ttl:30000}")
+    private long domainNotFoundCacheTtl;
+
+    @Value("${archura.proxy.async.enabled:false}")
+    private boolean proxyAsyncEnabled;
+
+    @Value("${archura.buffer.size:8192}")
+    private int bufferSize;
+
+    @Value("${archura.buffer.pool.size:1024}")
+    private int bufferPoolSize;
+
+    @Value("${archura.request.body.in-memory.limit:65536}")
+    private int requestBodyInMemoryLimit;
+
+    @Value("${archura.request.context.pool.size:1024}")
+    private int requestContextPoolSize;
+
+    @Value("${archura.response.cache.max-bytes:0}")
+    private long responseCacheMaxBytes;
+
+    @Value("${archura.response.cache.max-entry-bytes:1048576}")
+    private long responseCacheMaxEntryBytes;
+
+    @Value("${archura.response.cache.disk.path:#{null}}")
+    private Path responseCacheDiskPath;
+
+    @Value("${archura.response.cache.disk.max-bytes:1073741824}")
+    private long responseCacheDiskMaxBytes;
+
+    @Value("${archura.response.cache.disk.segment-bytes:67108864}")
+    private long responseCacheDiskSegmentBytes;
+
+    @Value("${archura.response.cache.disk.max-entry-bytes:8388608}")
+    private long responseCacheDiskMaxEntryBytes;
+
+    /**
+     * Version of the configuration on the configuration server, configuration deltas continue from this version.
+     */
+    private long version;
+    private volatile Map<String, FilterConfiguration> preFilters = new LinkedHashMap<>();
+    private volatile Map<String, FilterConfiguration> postFilters = new LinkedHashMap<>();
+
+    /**
+     * Global pre and post filters resolved when the configuration is compiled.
+     */
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private volatile FilterPipeline preFilterPipeline = FilterPipeline.EMPTY;
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private volatile FilterPipeline postFilterPipeline = FilterPipeline.EMPTY;
+    private volatile Map<String, DomainConfiguration> domains = new HashMap<>();
+    private volatile Map<String, UpstreamConfiguration> upstreams = new HashMap<>();
 
     public void copy(final GlobalConfiguration from) {
         if (nonNull(from)
@@ -88,12 +175,16 @@ public class GlobalConfiguration {
             if (from.getNotificationServerRetryInterval() > ONE_SECOND) {
                 this.notificationServerRetryInterval = from.getNotificationServerRetryInterval();
             }
+            this.version = from.getVersion();
             this.dynamicConfigurationEnabled = from.isDynamicConfigurationEnabled();
             this.configurationServerRequestHeaders = from.getConfigurationServerRequestHeaders();
             this.notificationServerRequestHeaders = from.getNotificationServerRequestHeaders();
             this.domains = from.getDomains();
             this.preFilters = from.getPreFilters();
             this.postFilters = from.getPostFilters();
+            this.preFilterPipeline = from.getPreFilterPipeline();
+            this.postFilterPipeline = from.getPostFilterPipeline();
+            this.upstreams = from.getUpstreams();
         }
     }
 
@@ -114,6 +205,7 @@ public class GlobalConfiguration {
     }
 
     @Data
+    @Builder(toBuilder = true)
     @AllArgsConstructor
     @NoArgsConstructor
     public static class DomainConfiguration {
@@ -122,20 +214,48 @@ public class GlobalConfiguration {
         private String defaultTenantId;
         private String publicCertificate;
         private String publicCertificateType;
+        @Builder.Default
         private Map<String, String> parameters = new HashMap<>();
-        private Map<String, FilterConfiguration> preFilters = new HashMap<>();
-        private Map<String, FilterConfiguration> postFilters = new HashMap<>();
+        @Builder.Default
+        private Map<String, FilterConfiguration> preFilters = new LinkedHashMap<>();
+        @Builder.Default
+        private Map<String, FilterConfiguration> postFilters = new LinkedHashMap<>();
+        @Builder.Default
         private Map<String, TenantConfiguration> tenants = new HashMap<>();
+        /**
+         * Pre and post filters resolved when the configuration is compiled.
+         */
+        @JsonIgnore
+        @ToString.Exclude
+        @EqualsAndHashCode.Exclude
+        private FilterPipeline preFilterPipeline;
+        @JsonIgnore
+        @ToString.Exclude
+        @EqualsAndHashCode.Exclude
+        private FilterPipeline postFilterPipeline;
     }
 
     @Data
+    @Builder(toBuilder = true)
     @AllArgsConstructor
     @NoArgsConstructor
     public static class TenantConfiguration {
         private String name;
-        private Map<String, FilterConfiguration> preFilters = new HashMap<>();
-        private Map<String, FilterConfiguration> postFilters = new HashMap<>();
-
+        @Builder.Default
+        private Map<String, FilterConfiguration> preFilters = new LinkedHashMap<>();
+        @Builder.Default
+        private Map<String, FilterConfiguration> postFilters = new LinkedHashMap<>();
+        /**
+         * Pre and post filters resolved when the configuration is compiled.
+         */
+        @JsonIgnore
+        @ToString.Exclude
+        @EqualsAndHashCode.Exclude
+        private FilterPipeline preFilterPipeline;
+        @JsonIgnore
+        @ToString.Exclude
+        @EqualsAndHashCode.Exclude
+        private FilterPipeline postFilterPipeline;
     }
 
     @Data
@@ -145,14 +265,24 @@ public class GlobalConfiguration {
     public static class RouteConfiguration {
         private String name;
         @Builder.Default
-        private Map<String, FilterConfiguration> preFilters = new HashMap<>();
+        private Map<String, FilterConfiguration> preFilters = new LinkedHashMap<>();
         @Builder.Default
-        private Map<String, FilterConfiguration> postFilters = new HashMap<>();
+        private Map<String, FilterConfiguration> postFilters = new LinkedHashMap<>();
         private MatchConfiguration matchConfiguration;
         private ExtractConfiguration extractConfiguration;
         private MapConfiguration mapConfiguration;
         private PredefinedResponseConfiguration predefinedResponseConfiguration;
-        private Map<String, String> variables;
+        /**
+         * Pre and post filters resolved when the configuration is compiled.
+         */
+        @JsonIgnore
+        @ToString.Exclude
+        @EqualsAndHashCode.Exclude
+        private FilterPipeline preFilterPipeline;
+        @JsonIgnore
+        @ToString.Exclude
+        @EqualsAndHashCode.Exclude
+        private FilterPipeline postFilterPipeline;
     }
 
     @Data
@@ -265,11 +395,14 @@ public class GlobalConfiguration {
         /**
          * Compiled pattern.
          */
+        @JsonIgnore
+        @EqualsAndHashCode.Exclude
         private Pattern pattern;
 
     }
 
     @Data
+    @Builder(toBuilder = true)
     @AllArgsConstructor
     @NoArgsConstructor
     public static class MapConfiguration {
@@ -283,13 +416,143 @@ public class GlobalConfiguration {
          * HTTP Method to be mapped to.
          * i.e. { "PUT": "POST" }
          */
+        @Builder.Default
         private Map<String, String> methodMap = new HashMap<>();
 
         /**
          * Headers to be mapped to.
          * i.e. { "X-A-New-Header" : "${match.header.GroupOne}" , "X-A-Generic-Header" : "${extract.header.GroupTwo}"}
          */
+        @Builder.Default
         private Map<String, String> headers = new HashMap<>();
+
+        /**
+         * Name of the upstream in the global 'upstreams', requests are sent with the HTTP client of the upstream,
+         * to one of the endpoints of the upstream if it has endpoints.
+         * Requests of routes without an upstream, or with an unknown upstream, are sent with the default HTTP client.
+         * i.e. "orders-service"
+         */
+        private String upstream;
+
+        /**
+         * Coalescing of identical concurrent downstream requests, requests are not coalesced if it is not set.
+         * i.e. { "keyHeaders": ["Accept"], "maxBodyBytes": 1048576 }
+         */
+        private CoalescingConfiguration coalescingConfiguration;
+
+        /**
+         * Compiled 'url' template, compiled when the configuration is loaded.
+         */
+        @JsonIgnore
+        @ToString.Exclude
+        @EqualsAndHashCode.Exclude
+        private Template urlTemplate;
+
+        /**
+         * Compiled 'headers' value templates, compiled when the configuration is loaded.
+         */
+        @JsonIgnore
+        @ToString.Exclude
+        @EqualsAndHashCode.Exclude
+        @Builder.Default
+        private Map<String, Template> headerTemplates = new LinkedHashMap<>();
+
+        public void setUrl(final String url) {
+            this.url = url;
+            this.urlTemplate = Template.compile(url);
+        }
+
+        public void setHeaders(final Map<String, String> headers) {
+            this.headers = headers;
+            final Map<String, Template> templates = new LinkedHashMap<>();
+            if (nonNull(headers)) {
+                for (Map.Entry<String, String> entry : headers.entrySet()) {
+                    templates.put(entry.getKey(), Template.compile(entry.getValue()));
+                }
+            }
+            this.headerTemplates = templates;
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class UpstreamConfiguration {
+
+        /**
+         * HTTP protocol version used for the upstream.
+         * i.e. "HTTP_1_1" or "HTTP_2"
+         */
+        private HttpClient.Version version = HttpClient.Version.HTTP_2;
+
+        /**
+         * Connection timeout in milliseconds.
+         */
+        private long connectTimeout = 10_000;
+
+        /**
+         * Request timeout in milliseconds, time to wait for the response headers.
+         */
+        private long requestTimeout = 10_000;
+
+        /**
+         * Endpoints of the upstream, requests are load balanced over the endpoints.
+         * If there are no endpoints, requests are sent to the mapped URL.
+         */
+        private List<EndpointConfiguration> endpoints = new ArrayList<>();
+
+        /**
+         * Health check of the endpoints, endpoints are not health checked if not set.
+         */
+        private HealthCheckConfiguration healthCheck;
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class HealthCheckConfiguration {
+
+        /**
+         * Path requested on every endpoint, a response status below 400 is healthy.
+         */
+        private String path = "/health";
+
+        /**
+         * Interval between health checks in milliseconds.
+         */
+        private long interval = 5_000;
+
+        /**
+         * Health check request timeout in milliseconds.
+         */
+        private long timeout = 1_000;
+
+        /**
+         * Consecutive successful health checks to mark an unhealthy endpoint healthy.
+         */
+        private int healthyThreshold = 2;
+
+        /**
+         * Consecutive failed health checks to mark a healthy endpoint unhealthy.
+         */
+        private int unhealthyThreshold = 3;
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class EndpointConfiguration {
+
+        /**
+         * Base URL of the endpoint, replaces the scheme and authority of the mapped URL.
+         * i.e. "http://10.0.0.1:8080"
+         */
+        private String url;
+
+        /**
+         * Relative weight of the endpoint, endpoints with a weight of 0 do not receive requests.
+         */
+        private int weight = 1;
     }
 
     @Data
@@ -309,12 +572,80 @@ public class GlobalConfiguration {
         private String body;
     }
 
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class CoalescingConfiguration {
+
+        /**
+         * Downstream request headers that are part of the coalescing key, besides the method and the downstream URL.
+         * i.e. ["Accept", "Accept-Language"]
+         */
+        private List<String> keyHeaders = new ArrayList<>();
+
+        /**
+         * Maximum size of a shared response body, requests with larger responses are sent independently.
+         * i.e. 1048576
+         */
+        private long maxBodyBytes = 1048576;
+    }
+
     @Data
     @EqualsAndHashCode(callSuper = true)
     @AllArgsConstructor
     @NoArgsConstructor
     public static class RouteMatchingFilterConfiguration extends FilterConfiguration {
         private Map<String, List<RouteConfiguration>> methodRoutes = new HashMap<>();
+
+        /**
+         * Route indexes per HTTP method, built from the 'methodRoutes' when the configuration is loaded.
+         */
+        @JsonIgnore
+        @ToString.Exclude
+        @EqualsAndHashCode.Exclude
+        private Map<String, RouteIndex> routeIndexes = new HashMap<>();
+
+        /**
+         * Names of the headers the match configurations of the routes refer to.
+         */
+        @JsonIgnore
+        @ToString.Exclude
+        @EqualsAndHashCode.Exclude
+        private Set<String> matchHeaderNames = new TreeSet<>();
+
+        /**
+         * Names of the query parameters the match configurations of the routes refer to.
+         */
+        @JsonIgnore
+        @ToString.Exclude
+        @EqualsAndHashCode.Exclude
+        private Set<String> matchQueryNames = new TreeSet<>();
+
+        public void setMethodRoutes(final Map<String, List<RouteConfiguration>> methodRoutes) {
+            this.methodRoutes = methodRoutes;
+            this.routeIndexes = RouteIndex.build(methodRoutes);
+            this.matchHeaderNames = new TreeSet<>();
+            this.matchQueryNames = new TreeSet<>();
+            if (nonNull(methodRoutes)) {
+                methodRoutes.values().stream()
+                        .filter(Objects::nonNull)
+                        .flatMap(List::stream)
+                        .map(RouteConfiguration::getMatchConfiguration)
+                        .filter(Objects::nonNull)
+                        .forEach(matchConfiguration -> {
+                            matchConfiguration.getHeaderConfiguration().stream()
+                                    .filter(Objects::nonNull)
+                                    .map(HeaderConfiguration::getName)
+                                    .filter(Objects::nonNull)
+                                    .forEach(matchHeaderNames::add);
+                            matchConfiguration.getQueryConfiguration().stream()
+                                    .filter(Objects::nonNull)
+                                    .map(QueryConfiguration::getName)
+                                    .filter(Objects::nonNull)
+                                    .forEach(matchQueryNames::add);
+                        });
+            }
+        }
     }
 
     @Data
@@ -326,6 +657,33 @@ public class GlobalConfiguration {
         private Map<String, List<String>> domainIps = new HashMap<>();
     }
 
+    @Data
+    @EqualsAndHashCode(callSuper = true)
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class CachingFilterConfiguration extends FilterConfiguration {
+        /**
+         * Names of the request headers that are part of the cache key, i.e. 'Accept-Encoding' or 'Accept-Language'.
+         */
+        private List<String> keyHeaders = new ArrayList<>();
+        /**
+         * Whether the tenant is part of the cache key, tenants of a domain share cached responses otherwise.
+         */
+        private boolean keyTenant = true;
+        /**
+         * Whether the query string is part of the cache key.
+         */
+        private boolean keyQuery = true;
+        /**
+         * Time to live of cached responses in milliseconds, overrides the freshness of the upstream responses when positive.
+         */
+        private long ttl;
+        /**
+         * Time to live overrides per route name.
+         */
+        private Map<String, Long> routeTtls = new HashMap<>();
+    }
+
     @Data
     @EqualsAndHashCode(callSuper = true)
     @AllArgsConstructor
@@ -345,6 +703,19 @@ public class GlobalConfiguration {
         private String name;
         private String value;
         private String regex;
+
+        /**
+         * Compiled 'value' template, compiled when the configuration is loaded.
+         */
+        @JsonIgnore
+        @ToString.Exclude
+        @EqualsAndHashCode.Exclude
+        private Template valueTemplate;
+
+        public void setValue(final String value) {
+            this.value = value;
+            this.valueTemplate = Template.compile(value);
+        }
     }
 
     @Data
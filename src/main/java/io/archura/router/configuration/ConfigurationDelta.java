@@ -0,0 +1,59 @@
+package io.archura.router.configuration;
+
+import io.archura.router.config.GlobalConfiguration;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A single configuration change sent by the notification server.
+ * i.e.
+ * { "version": 43, "operation": "UPSERT_ROUTE", "domain": "localhost:8080", "tenant": "default", "method": "GET", "routeConfiguration": { "name": "route-01", ... } }
+ * { "version": 44, "operation": "REMOVE_TENANT", "domain": "localhost:8080", "tenant": "default" }
+ * Deltas are applied in version order, each delta has to be exactly one version after the configuration it is applied to.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ConfigurationDelta {
+
+    /**
+     * Configuration version after this delta is applied.
+     */
+    private long version;
+
+    private Operation operation;
+
+    /**
+     * Domain name, required for all operations.
+     */
+    private String domain;
+
+    /**
+     * Tenant name, required for tenant and route operations.
+     */
+    private String tenant;
+
+    /**
+     * HTTP method of the route, required for route operations.
+     */
+    private String method;
+
+    /**
+     * Name of the route, required for 'REMOVE_ROUTE'.
+     */
+    private String route;
+
+    private GlobalConfiguration.DomainConfiguration domainConfiguration;
+    private GlobalConfiguration.TenantConfiguration tenantConfiguration;
+    private GlobalConfiguration.RouteConfiguration routeConfiguration;
+
+    public enum Operation {
+        UPSERT_DOMAIN,
+        REMOVE_DOMAIN,
+        UPSERT_TENANT,
+        REMOVE_TENANT,
+        UPSERT_ROUTE,
+        REMOVE_ROUTE
+    }
+}
@@ -0,0 +1,225 @@
+package io.archura.router.configuration;
+
+import io.archura.router.config.GlobalConfiguration;
+import io.archura.router.configuration.exception.GlobalConfigurationCompileException;
+import io.archura.router.domain.DomainConfigurationStore;
+import io.archura.router.mapping.Mapper;
+import io.archura.router.notification.event.NotificationServerTextMessageEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Applies configuration deltas received from the notification server to the current configuration snapshot.
+ * Only the changed domain, tenant or route is compiled, the rest of the snapshot is shared with the previous one.
+ * When a delta does not continue from the current configuration version, or refers to a tenant that does not exist,
+ * the whole configuration is fetched again from the configuration server.
+ * Tenant and route deltas of domains that are not in the snapshot, i.e. domains loaded on demand, only invalidate the cached domain.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+public class ConfigurationDeltaListener implements ApplicationListener<NotificationServerTextMessageEvent> {
+
+    private final Mapper mapper;
+    private final GlobalConfigurationCompiler globalConfigurationCompiler;
+    private final ConfigurationSnapshotHolder configurationSnapshotHolder;
+    private final GlobalConfigurationListener globalConfigurationListener;
+    private final DomainConfigurationStore domainConfigurationStore;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicBoolean resyncInProgress = new AtomicBoolean(false);
+
+    @Override
+    public void onApplicationEvent(final NotificationServerTextMessageEvent event) {
+        final String text = event.getText();
+        if (isNull(text) || !text.stripLeading().startsWith("{")) {
+            log.debug("Ignoring notification, not a configuration delta: {}", text);
+            return;
+        }
+        final ConfigurationDelta delta = mapper.readValue(text, ConfigurationDelta.class);
+        if (isNull(delta) || isNull(delta.getOperation()) || isNull(delta.getDomain())) {
+            log.debug("Ignoring notification, not a configuration delta: {}", text);
+            return;
+        }
+        apply(delta);
+    }
+
+    public void apply(final ConfigurationDelta delta) {
+        if (resyncInProgress.get()) {
+            log.debug("Ignoring configuration delta {}, full configuration fetch in progress", delta.getVersion());
+            return;
+        }
+        lock.lock();
+        try {
+            final long currentVersion = configurationSnapshotHolder.current().getConfigurationVersion();
+            if (delta.getVersion() <= currentVersion) {
+                log.debug("Ignoring configuration delta {}, current version is {}", delta.getVersion(), currentVersion);
+                return;
+            }
+            if (delta.getVersion() != currentVersion + 1) {
+                log.warn("Configuration delta {} does not follow current version {}", delta.getVersion(), currentVersion);
+                resync();
+                return;
+            }
+            compile(delta);
+            configurationSnapshotHolder.update(delta.getVersion(), domains -> applyDelta(delta, domains));
+            domainConfigurationStore.invalidate(delta.getDomain());
+            log.debug("Configuration delta {} applied, operation: {}, domain: '{}'", delta.getVersion(), delta.getOperation(), delta.getDomain());
+        } catch (GlobalConfigurationCompileException e) {
+            log.error("Configuration delta {} is invalid, errors: {}", delta.getVersion(), e.getErrors());
+        } catch (IllegalStateException e) {
+            log.warn("Configuration delta {} can not be applied: {}", delta.getVersion(), e.getMessage());
+            resync();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void compile(final ConfigurationDelta delta) {
+        switch (delta.getOperation()) {
+            case UPSERT_DOMAIN -> globalConfigurationCompiler.compile(delta.getDomain(), requireNonNull(delta.getDomainConfiguration(), "domainConfiguration"));
+            case UPSERT_TENANT -> globalConfigurationCompiler.compile(delta.getDomain(), requireNonNull(delta.getTenant(), "tenant"),
+                    requireNonNull(delta.getTenantConfiguration(), "tenantConfiguration"));
+            case UPSERT_ROUTE -> globalConfigurationCompiler.compile(delta.getDomain(), requireNonNull(delta.getTenant(), "tenant"),
+                    requireNonNull(delta.getMethod(), "method"), requireNonNull(delta.getRouteConfiguration(), "routeConfiguration"));
+            default -> {
+                // nothing to compile for removals
+            }
+        }
+    }
+
+    private Map<String, GlobalConfiguration.DomainConfiguration> applyDelta(
+            final ConfigurationDelta delta,
+            final Map<String, GlobalConfiguration.DomainConfiguration> domains
+    ) {
+        if (isDomainOutsideSnapshot(delta, domains)) {
+            // i.e. a domain loaded on demand, it is loaded again after its entry in the domain store is invalidated
+            log.debug("Domain '{}' of configuration delta {} is not in the snapshot", delta.getDomain(), delta.getVersion());
+            return domains;
+        }
+        switch (delta.getOperation()) {
+            case UPSERT_DOMAIN -> domains.put(delta.getDomain(), delta.getDomainConfiguration());
+            case REMOVE_DOMAIN -> domains.remove(delta.getDomain());
+            case UPSERT_TENANT, REMOVE_TENANT -> {
+                final GlobalConfiguration.DomainConfiguration domainConfiguration = getDomain(delta, domains);
+                final Map<String, GlobalConfiguration.TenantConfiguration> tenants = new HashMap<>(domainConfiguration.getTenants());
+                if (delta.getOperation() == ConfigurationDelta.Operation.UPSERT_TENANT) {
+                    tenants.put(delta.getTenant(), delta.getTenantConfiguration());
+                } else {
+                    tenants.remove(requireNonNull(delta.getTenant(), "tenant"));
+                }
+                domains.put(delta.getDomain(), domainConfiguration.toBuilder().tenants(tenants).build());
+            }
+            case UPSERT_ROUTE, REMOVE_ROUTE -> {
+                final GlobalConfiguration.DomainConfiguration domainConfiguration = getDomain(delta, domains);
+                final GlobalConfiguration.TenantConfiguration tenantConfiguration = domainConfiguration.getTenants().get(requireNonNull(delta.getTenant(), "tenant"));
+                if (isNull(tenantConfiguration)) {
+                    throw new IllegalStateException("tenant '%s' not found in domain '%s'".formatted(delta.getTenant(), delta.getDomain()));
+                }
+                final Map<String, GlobalConfiguration.TenantConfiguration> tenants = new HashMap<>(domainConfiguration.getTenants());
+                tenants.put(delta.getTenant(), applyRouteDelta(delta, tenantConfiguration));
+                domains.put(delta.getDomain(), domainConfiguration.toBuilder().tenants(tenants).build());
+            }
+        }
+        return domains;
+    }
+
+    private GlobalConfiguration.TenantConfiguration applyRouteDelta(
+            final ConfigurationDelta delta,
+            final GlobalConfiguration.TenantConfiguration tenantConfiguration
+    ) {
+        final String method = requireNonNull(delta.getMethod(), "method");
+        final Map<String, GlobalConfiguration.FilterConfiguration> preFilters = new LinkedHashMap<>(tenantConfiguration.getPreFilters());
+        final Map.Entry<String, GlobalConfiguration.FilterConfiguration> routeMatchingEntry = preFilters.entrySet().stream()
+                .filter(entry -> entry.getValue() instanceof GlobalConfiguration.RouteMatchingFilterConfiguration)
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("no route matching filter found in tenant '%s' of domain '%s'"
+                        .formatted(delta.getTenant(), delta.getDomain())));
+        final GlobalConfiguration.RouteMatchingFilterConfiguration previous = (GlobalConfiguration.RouteMatchingFilterConfiguration) routeMatchingEntry.getValue();
+        final Map<String, List<GlobalConfiguration.RouteConfiguration>> methodRoutes = new HashMap<>(previous.getMethodRoutes());
+        final List<GlobalConfiguration.RouteConfiguration> routes = new ArrayList<>(methodRoutes.getOrDefault(method, List.of()));
+        if (delta.getOperation() == ConfigurationDelta.Operation.UPSERT_ROUTE) {
+            final GlobalConfiguration.RouteConfiguration routeConfiguration = delta.getRouteConfiguration();
+            final int index = indexOf(routes, routeConfiguration.getName());
+            if (index >= 0) {
+                routes.set(index, routeConfiguration);
+            } else {
+                routes.add(routeConfiguration);
+            }
+        } else {
+            final int index = indexOf(routes, requireNonNull(delta.getRoute(), "route"));
+            if (index >= 0) {
+                routes.remove(index);
+            }
+        }
+        methodRoutes.put(method, routes);
+        final GlobalConfiguration.RouteMatchingFilterConfiguration routeMatchingFilterConfiguration = new GlobalConfiguration.RouteMatchingFilterConfiguration();
+        routeMatchingFilterConfiguration.setParameters(previous.getParameters());
+        routeMatchingFilterConfiguration.setMethodRoutes(methodRoutes);
+        preFilters.put(routeMatchingEntry.getKey(), routeMatchingFilterConfiguration);
+        // the copied tenant still has the pipelines of the previous filters
+        return globalConfigurationCompiler.compilePipelines(tenantConfiguration.toBuilder().preFilters(preFilters).build());
+    }
+
+    private GlobalConfiguration.DomainConfiguration getDomain(
+            final ConfigurationDelta delta,
+            final Map<String, GlobalConfiguration.DomainConfiguration> domains
+    ) {
+        final GlobalConfiguration.DomainConfiguration domainConfiguration = domains.get(delta.getDomain());
+        if (isNull(domainConfiguration)) {
+            throw new IllegalStateException("domain '%s' not found".formatted(delta.getDomain()));
+        }
+        return domainConfiguration;
+    }
+
+    private boolean isDomainOutsideSnapshot(
+            final ConfigurationDelta delta,
+            final Map<String, GlobalConfiguration.DomainConfiguration> domains
+    ) {
+        return delta.getOperation() != ConfigurationDelta.Operation.UPSERT_DOMAIN
+                && delta.getOperation() != ConfigurationDelta.Operation.REMOVE_DOMAIN
+                && !domains.containsKey(delta.getDomain());
+    }
+
+    private int indexOf(final List<GlobalConfiguration.RouteConfiguration> routes, final String name) {
+        for (int i = 0; i < routes.size(); i++) {
+            if (nonNull(routes.get(i)) && Objects.equals(routes.get(i).getName(), name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private <T> T requireNonNull(final T value, final String field) {
+        if (isNull(value)) {
+            throw new IllegalStateException("'%s' is missing".formatted(field));
+        }
+        return value;
+    }
+
+    private void resync() {
+        if (resyncInProgress.compareAndSet(false, true)) {
+            Thread.startVirtualThread(() -> {
+                try {
+                    globalConfigurationListener.resync();
+                } finally {
+                    resyncInProgress.set(false);
+                }
+            });
+        }
+    }
+
+}
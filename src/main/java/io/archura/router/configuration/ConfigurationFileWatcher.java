@@ -0,0 +1,84 @@
+package io.archura.router.configuration;
+
+import io.archura.router.config.GlobalConfiguration;
+import io.archura.router.configuration.exception.GlobalConfigurationCompileException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Watches the configuration file and reloads it when it changes, if 'archura.configuration.file.watch.enabled' is true.
+ * A burst of changes, i.e. an editor writing the file in several steps, results in a single reload
+ * once the file has not changed for 'archura.configuration.file.watch.debounce' milliseconds.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ConfigurationFileWatcher {
+
+    private final GlobalConfiguration globalConfiguration;
+    private final GlobalConfigurationListener globalConfigurationListener;
+
+    public void start() {
+        if (!globalConfiguration.isConfigurationFileWatchEnabled() || isNull(globalConfiguration.getFilePath())) {
+            return;
+        }
+        final Path filePath = globalConfiguration.getFilePath().toAbsolutePath();
+        Thread.ofVirtual().name("configuration-file-watcher").start(() -> watch(filePath));
+    }
+
+    private void watch(final Path filePath) {
+        final Path directory = filePath.getParent();
+        try (WatchService watchService = directory.getFileSystem().newWatchService()) {
+            // watch the directory, editors often replace the file instead of modifying it
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            log.debug("Watching configuration file: '{}'", filePath);
+            while (!Thread.currentThread().isInterrupted()) {
+                boolean changed = isFileChanged(watchService.take(), filePath);
+                WatchKey watchKey;
+                while (nonNull(watchKey = watchService.poll(globalConfiguration.getConfigurationFileWatchDebounce(), TimeUnit.MILLISECONDS))) {
+                    changed |= isFileChanged(watchKey, filePath);
+                }
+                if (changed) {
+                    reload(filePath);
+                }
+            }
+        } catch (IOException e) {
+            log.error("Failed to watch configuration file: '{}'", filePath, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean isFileChanged(final WatchKey watchKey, final Path filePath) {
+        boolean changed = false;
+        for (WatchEvent<?> event : watchKey.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || filePath.getFileName().equals(event.context())) {
+                changed = true;
+            }
+        }
+        watchKey.reset();
+        return changed;
+    }
+
+    private void reload(final Path filePath) {
+        try {
+            globalConfigurationListener.reloadFileConfiguration(filePath);
+        } catch (IOException e) {
+            log.error("Configuration file change is not applied, current configuration stays in use", e);
+        } catch (GlobalConfigurationCompileException e) {
+            log.error("Configuration file change is invalid, current configuration stays in use, errors: {}", e.getErrors());
+        }
+    }
+}
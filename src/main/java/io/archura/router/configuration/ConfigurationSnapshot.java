@@ -0,0 +1,133 @@
+package io.archura.router.configuration;
+
+import io.archura.router.config.GlobalConfiguration;
+import io.archura.router.filter.FilterPipeline;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Routing state of one compiled global configuration.
+ * A request pins the snapshot it started with, so it sees the global filters and the domains of the same version,
+ * even if a new configuration is published while the request is in flight.
+ */
+public class ConfigurationSnapshot {
+
+    private final long version;
+    private final long configurationVersion;
+    private final Map<String, GlobalConfiguration.FilterConfiguration> preFilters;
+    private final Map<String, GlobalConfiguration.FilterConfiguration> postFilters;
+    private final FilterPipeline preFilterPipeline;
+    private final FilterPipeline postFilterPipeline;
+    private final Map<String, GlobalConfiguration.DomainConfiguration> domains;
+    private final AtomicInteger inFlightRequests = new AtomicInteger();
+
+    ConfigurationSnapshot(final long version, final GlobalConfiguration globalConfiguration) {
+        this(
+                version,
+                globalConfiguration.getVersion(),
+                Collections.unmodifiableMap(new LinkedHashMap<>(nullToEmpty(globalConfiguration.getPreFilters()))),
+                Collections.unmodifiableMap(new LinkedHashMap<>(nullToEmpty(globalConfiguration.getPostFilters()))),
+                nullToEmpty(globalConfiguration.getPreFilterPipeline()),
+                nullToEmpty(globalConfiguration.getPostFilterPipeline()),
+                nullToEmpty(globalConfiguration.getDomains())
+        );
+    }
+
+    private ConfigurationSnapshot(
+            final long version,
+            final long configurationVersion,
+            final Map<String, GlobalConfiguration.FilterConfiguration> preFilters,
+            final Map<String, GlobalConfiguration.FilterConfiguration> postFilters,
+            final FilterPipeline preFilterPipeline,
+            final FilterPipeline postFilterPipeline,
+            final Map<String, GlobalConfiguration.DomainConfiguration> domains
+    ) {
+        this.version = version;
+        this.configurationVersion = configurationVersion;
+        this.preFilters = preFilters;
+        this.postFilters = postFilters;
+        this.preFilterPipeline = preFilterPipeline;
+        this.postFilterPipeline = postFilterPipeline;
+        this.domains = Collections.unmodifiableMap(new HashMap<>(domains));
+    }
+
+    /**
+     * Returns a snapshot with the same global filters and the given domains.
+     */
+    ConfigurationSnapshot withDomains(
+            final long version,
+            final long configurationVersion,
+            final Map<String, GlobalConfiguration.DomainConfiguration> domains
+    ) {
+        return new ConfigurationSnapshot(version, configurationVersion, preFilters, postFilters, preFilterPipeline, postFilterPipeline, domains);
+    }
+
+    /**
+     * Returns the local version of the snapshot, incremented every time a snapshot is published.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the configuration server version of the configuration the snapshot was created from.
+     */
+    public long getConfigurationVersion() {
+        return configurationVersion;
+    }
+
+    public Map<String, GlobalConfiguration.FilterConfiguration> getPreFilters() {
+        return preFilters;
+    }
+
+    public Map<String, GlobalConfiguration.FilterConfiguration> getPostFilters() {
+        return postFilters;
+    }
+
+    /**
+     * Returns the global pre-filters resolved when the configuration was compiled.
+     */
+    public FilterPipeline getPreFilterPipeline() {
+        return preFilterPipeline;
+    }
+
+    /**
+     * Returns the global post-filters resolved when the configuration was compiled.
+     */
+    public FilterPipeline getPostFilterPipeline() {
+        return postFilterPipeline;
+    }
+
+    public Map<String, GlobalConfiguration.DomainConfiguration> getDomains() {
+        return domains;
+    }
+
+    /**
+     * Returns the number of requests currently running with this snapshot.
+     */
+    public int getInFlightRequests() {
+        return inFlightRequests.get();
+    }
+
+    void acquire() {
+        inFlightRequests.incrementAndGet();
+    }
+
+    void release() {
+        inFlightRequests.decrementAndGet();
+    }
+
+    private static FilterPipeline nullToEmpty(final FilterPipeline filterPipeline) {
+        return isNull(filterPipeline) ? FilterPipeline.EMPTY : filterPipeline;
+    }
+
+    private static <V> Map<String, V> nullToEmpty(final Map<String, V> map) {
+        return isNull(map) ? Map.of() : map;
+    }
+}
@@ -0,0 +1,75 @@
+package io.archura.router.configuration;
+
+import io.archura.router.config.GlobalConfiguration;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * Publishes configuration snapshots through a single atomic reference.
+ * Readers never lock, a new configuration replaces the whole routing state at once.
+ */
+@Slf4j
+@Component
+public class ConfigurationSnapshotHolder {
+
+    private final AtomicLong versions = new AtomicLong();
+    private final AtomicReference<ConfigurationSnapshot> current;
+
+    public ConfigurationSnapshotHolder(final GlobalConfiguration globalConfiguration) {
+        this.current = new AtomicReference<>(new ConfigurationSnapshot(0, globalConfiguration));
+    }
+
+    /**
+     * Creates a snapshot of the given compiled configuration and makes it the current one.
+     */
+    public ConfigurationSnapshot publish(final GlobalConfiguration globalConfiguration) {
+        final ConfigurationSnapshot snapshot = new ConfigurationSnapshot(versions.incrementAndGet(), globalConfiguration);
+        final ConfigurationSnapshot replaced = current.getAndSet(snapshot);
+        log.debug("Configuration version {} published, version {} has {} requests in flight",
+                snapshot.getVersion(), replaced.getVersion(), replaced.getInFlightRequests());
+        return snapshot;
+    }
+
+    /**
+     * Replaces the domains of the current snapshot with the domains computed from it.
+     * The function may be called more than once if another snapshot is published concurrently, so it must not have side effects.
+     */
+    public ConfigurationSnapshot update(
+            final long configurationVersion,
+            final UnaryOperator<Map<String, GlobalConfiguration.DomainConfiguration>> domainsUpdate
+    ) {
+        while (true) {
+            final ConfigurationSnapshot previous = current.get();
+            final Map<String, GlobalConfiguration.DomainConfiguration> domains = domainsUpdate.apply(new HashMap<>(previous.getDomains()));
+            final ConfigurationSnapshot snapshot = previous.withDomains(versions.incrementAndGet(), configurationVersion, domains);
+            if (current.compareAndSet(previous, snapshot)) {
+                log.debug("Configuration version {} published with configuration delta {}, version {} has {} requests in flight",
+                        snapshot.getVersion(), configurationVersion, previous.getVersion(), previous.getInFlightRequests());
+                return snapshot;
+            }
+        }
+    }
+
+    public ConfigurationSnapshot current() {
+        return current.get();
+    }
+
+    /**
+     * Pins the current snapshot for a request, the request has to call {@link #release(ConfigurationSnapshot)} when it is done.
+     */
+    public ConfigurationSnapshot acquire() {
+        final ConfigurationSnapshot snapshot = current.get();
+        snapshot.acquire();
+        return snapshot;
+    }
+
+    public void release(final ConfigurationSnapshot snapshot) {
+        snapshot.release();
+    }
+}
@@ -0,0 +1,336 @@
+package io.archura.router.configuration;
+
+import io.archura.router.config.GlobalConfiguration;
+import io.archura.router.configuration.exception.GlobalConfigurationCompileException;
+import io.archura.router.filter.FilterFactory;
+import io.archura.router.filter.FilterPipeline;
+import io.archura.router.filter.internal.UnknownFilter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Compiles a freshly loaded global configuration before it is published to the filters.
+ * Every regex is validated and compiled into its {@link GlobalConfiguration.PatternHolder},
+ * and every filter map is resolved into a {@link FilterPipeline}, so requests never compile patterns or look up filter beans.
+ * A configuration with invalid regexes is rejected as a whole and the current configuration stays in use.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class GlobalConfigurationCompiler {
+
+    private final FilterFactory filterFactory;
+
+    public GlobalConfiguration compile(final GlobalConfiguration globalConfiguration) {
+        final List<String> errors = new ArrayList<>();
+        globalConfiguration.setPreFilterPipeline(compileFilters("global", globalConfiguration.getPreFilters(), errors));
+        globalConfiguration.setPostFilterPipeline(compileFilters("global", globalConfiguration.getPostFilters(), errors));
+        if (nonNull(globalConfiguration.getDomains())) {
+            // domains are independent of each other, compile them in parallel
+            try (ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor()) {
+                final List<Future<List<String>>> domainErrors = new ArrayList<>();
+                for (Map.Entry<String, GlobalConfiguration.DomainConfiguration> domainEntry : globalConfiguration.getDomains().entrySet()) {
+                    domainErrors.add(executorService.submit(() -> {
+                        final List<String> compileErrors = new ArrayList<>();
+                        compileDomain("domain '%s'".formatted(domainEntry.getKey()), domainEntry.getValue(), compileErrors);
+                        return compileErrors;
+                    }));
+                }
+                for (Future<List<String>> future : domainErrors) {
+                    errors.addAll(getErrors(future));
+                }
+            }
+        }
+        throwIfInvalid(errors);
+        return globalConfiguration;
+    }
+
+    /**
+     * Compiles a single domain configuration, i.e. a domain received as a configuration delta.
+     */
+    public GlobalConfiguration.DomainConfiguration compile(
+            final String domain,
+            final GlobalConfiguration.DomainConfiguration domainConfiguration
+    ) {
+        final List<String> errors = new ArrayList<>();
+        compileDomain("domain '%s'".formatted(domain), domainConfiguration, errors);
+        throwIfInvalid(errors);
+        return domainConfiguration;
+    }
+
+    /**
+     * Compiles a single tenant configuration of a domain.
+     */
+    public GlobalConfiguration.TenantConfiguration compile(
+            final String domain,
+            final String tenant,
+            final GlobalConfiguration.TenantConfiguration tenantConfiguration
+    ) {
+        final List<String> errors = new ArrayList<>();
+        compileTenant("domain '%s' tenant '%s'".formatted(domain, tenant), tenantConfiguration, errors);
+        throwIfInvalid(errors);
+        return tenantConfiguration;
+    }
+
+    /**
+     * Compiles a single route configuration of a tenant.
+     */
+    public GlobalConfiguration.RouteConfiguration compile(
+            final String domain,
+            final String tenant,
+            final String method,
+            final GlobalConfiguration.RouteConfiguration routeConfiguration
+    ) {
+        final List<String> errors = new ArrayList<>();
+        compileRoute("domain '%s' tenant '%s' method '%s'".formatted(domain, tenant, method), routeConfiguration, errors);
+        throwIfInvalid(errors);
+        return routeConfiguration;
+    }
+
+    /**
+     * Resolves the filter pipelines of a tenant copied with changed filters, whose filter configurations are already compiled,
+     * i.e. a tenant with a route matching filter changed by a route delta.
+     */
+    public GlobalConfiguration.TenantConfiguration compilePipelines(final GlobalConfiguration.TenantConfiguration tenantConfiguration) {
+        tenantConfiguration.setPreFilterPipeline(filterFactory.createPipeline(tenantConfiguration.getPreFilters()));
+        tenantConfiguration.setPostFilterPipeline(filterFactory.createPipeline(tenantConfiguration.getPostFilters()));
+        return tenantConfiguration;
+    }
+
+    private List<String> getErrors(final Future<List<String>> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return List.of("compilation interrupted");
+        } catch (ExecutionException e) {
+            return List.of("compilation failed: %s".formatted(e.getCause()));
+        }
+    }
+
+    private void throwIfInvalid(final List<String> errors) {
+        if (!errors.isEmpty()) {
+            throw new GlobalConfigurationCompileException(errors);
+        }
+    }
+
+    private void compileDomain(
+            final String location,
+            final GlobalConfiguration.DomainConfiguration domainConfiguration,
+            final List<String> errors
+    ) {
+        if (isNull(domainConfiguration)) {
+            return;
+        }
+        domainConfiguration.setPreFilterPipeline(compileFilters(location, domainConfiguration.getPreFilters(), errors));
+        domainConfiguration.setPostFilterPipeline(compileFilters(location, domainConfiguration.getPostFilters(), errors));
+        if (nonNull(domainConfiguration.getTenants())) {
+            for (Map.Entry<String, GlobalConfiguration.TenantConfiguration> tenantEntry : domainConfiguration.getTenants().entrySet()) {
+                compileTenant("%s tenant '%s'".formatted(location, tenantEntry.getKey()), tenantEntry.getValue(), errors);
+            }
+        }
+    }
+
+    private void compileTenant(
+            final String location,
+            final GlobalConfiguration.TenantConfiguration tenantConfiguration,
+            final List<String> errors
+    ) {
+        if (nonNull(tenantConfiguration)) {
+            tenantConfiguration.setPreFilterPipeline(compileFilters(location, tenantConfiguration.getPreFilters(), errors));
+            tenantConfiguration.setPostFilterPipeline(compileFilters(location, tenantConfiguration.getPostFilters(), errors));
+        }
+    }
+
+    private FilterPipeline compileFilters(
+            final String location,
+            final Map<String, GlobalConfiguration.FilterConfiguration> filters,
+            final List<String> errors
+    ) {
+        final FilterPipeline filterPipeline = filterFactory.createPipeline(filters);
+        for (int index = 0; index < filterPipeline.size(); index++) {
+            final String filterLocation = "%s filter '%s'".formatted(location, filterPipeline.getName(index));
+            if (filterPipeline.getFilter(index) instanceof UnknownFilter) {
+                log.warn("No filter found for {}", filterLocation);
+            }
+            compileFilter(filterLocation, filterPipeline.getConfiguration(index), errors);
+        }
+        return filterPipeline;
+    }
+
+    private void compileFilter(
+            final String location,
+            final GlobalConfiguration.FilterConfiguration filterConfiguration,
+            final List<String> errors
+    ) {
+        if (filterConfiguration instanceof GlobalConfiguration.TenantFilterConfiguration tenantFilterConfiguration) {
+            compileExtractConfiguration(location, tenantFilterConfiguration.getExtractConfiguration(), errors);
+        } else if (filterConfiguration instanceof GlobalConfiguration.RouteMatchingFilterConfiguration routeMatchingFilterConfiguration) {
+            compileRoutes(location, routeMatchingFilterConfiguration.getMethodRoutes(), errors);
+        } else if (filterConfiguration instanceof GlobalConfiguration.HeaderFilterConfiguration headerFilterConfiguration) {
+            compileHeaderOperations(location, headerFilterConfiguration.getAdd(), errors);
+            compileHeaderOperations(location, headerFilterConfiguration.getRemove(), errors);
+            compileHeaderOperations(location, headerFilterConfiguration.getValidate(), errors);
+            compileHeaderOperations(location, headerFilterConfiguration.getMandatory(), errors);
+        } else if (filterConfiguration instanceof GlobalConfiguration.AuthenticationFilterConfiguration authenticationFilterConfiguration) {
+            compilePathConfiguration(location, authenticationFilterConfiguration.getPathConfiguration(), errors);
+            compileHeaderConfiguration(location, authenticationFilterConfiguration.getHeaderConfiguration(), errors);
+            compileQueryConfiguration(location, authenticationFilterConfiguration.getQueryConfiguration(), errors);
+        }
+    }
+
+    private void compileRoutes(
+            final String location,
+            final Map<String, List<GlobalConfiguration.RouteConfiguration>> methodRoutes,
+            final List<String> errors
+    ) {
+        if (isNull(methodRoutes)) {
+            return;
+        }
+        for (Map.Entry<String, List<GlobalConfiguration.RouteConfiguration>> entry : methodRoutes.entrySet()) {
+            if (isNull(entry.getValue())) {
+                continue;
+            }
+            for (GlobalConfiguration.RouteConfiguration routeConfiguration : entry.getValue()) {
+                compileRoute("%s method '%s'".formatted(location, entry.getKey()), routeConfiguration, errors);
+            }
+        }
+    }
+
+    private void compileRoute(
+            final String location,
+            final GlobalConfiguration.RouteConfiguration routeConfiguration,
+            final List<String> errors
+    ) {
+        if (isNull(routeConfiguration)) {
+            return;
+        }
+        final String routeLocation = "%s route '%s'".formatted(location, routeConfiguration.getName());
+        final GlobalConfiguration.MatchConfiguration matchConfiguration = routeConfiguration.getMatchConfiguration();
+        if (nonNull(matchConfiguration)) {
+            compilePathConfigurations(routeLocation, matchConfiguration.getPathConfiguration(), errors);
+            compileHeaderConfigurations(routeLocation, matchConfiguration.getHeaderConfiguration(), errors);
+            compileQueryConfigurations(routeLocation, matchConfiguration.getQueryConfiguration(), errors);
+        }
+        compileExtractConfiguration(routeLocation, routeConfiguration.getExtractConfiguration(), errors);
+        routeConfiguration.setPreFilterPipeline(compileFilters(routeLocation, routeConfiguration.getPreFilters(), errors));
+        routeConfiguration.setPostFilterPipeline(compileFilters(routeLocation, routeConfiguration.getPostFilters(), errors));
+    }
+
+    private void compileExtractConfiguration(
+            final String location,
+            final GlobalConfiguration.ExtractConfiguration extractConfiguration,
+            final List<String> errors
+    ) {
+        if (nonNull(extractConfiguration)) {
+            compilePathConfigurations(location, extractConfiguration.getPathConfiguration(), errors);
+            compileHeaderConfigurations(location, extractConfiguration.getHeaderConfiguration(), errors);
+            compileQueryConfigurations(location, extractConfiguration.getQueryConfiguration(), errors);
+        }
+    }
+
+    private void compilePathConfigurations(
+            final String location,
+            final List<GlobalConfiguration.PathConfiguration> pathConfigurations,
+            final List<String> errors
+    ) {
+        if (nonNull(pathConfigurations)) {
+            pathConfigurations.forEach(pathConfiguration -> compilePathConfiguration(location, pathConfiguration, errors));
+        }
+    }
+
+    private void compileHeaderConfigurations(
+            final String location,
+            final List<GlobalConfiguration.HeaderConfiguration> headerConfigurations,
+            final List<String> errors
+    ) {
+        if (nonNull(headerConfigurations)) {
+            headerConfigurations.forEach(headerConfiguration -> compileHeaderConfiguration(location, headerConfiguration, errors));
+        }
+    }
+
+    private void compileQueryConfigurations(
+            final String location,
+            final List<GlobalConfiguration.QueryConfiguration> queryConfigurations,
+            final List<String> errors
+    ) {
+        if (nonNull(queryConfigurations)) {
+            queryConfigurations.forEach(queryConfiguration -> compileQueryConfiguration(location, queryConfiguration, errors));
+        }
+    }
+
+    private void compileHeaderOperations(
+            final String location,
+            final List<GlobalConfiguration.HeaderOperation> headerOperations,
+            final List<String> errors
+    ) {
+        if (nonNull(headerOperations)) {
+            for (GlobalConfiguration.HeaderOperation headerOperation : headerOperations) {
+                if (nonNull(headerOperation)) {
+                    compilePattern(location, headerOperation, headerOperation.getRegex(), errors);
+                }
+            }
+        }
+    }
+
+    private void compilePathConfiguration(
+            final String location,
+            final GlobalConfiguration.PathConfiguration pathConfiguration,
+            final List<String> errors
+    ) {
+        if (nonNull(pathConfiguration)) {
+            compilePattern(location, pathConfiguration, pathConfiguration.getRegex(), errors);
+        }
+    }
+
+    private void compileHeaderConfiguration(
+            final String location,
+            final GlobalConfiguration.HeaderConfiguration headerConfiguration,
+            final List<String> errors
+    ) {
+        if (nonNull(headerConfiguration)) {
+            compilePattern(location, headerConfiguration, headerConfiguration.getRegex(), errors);
+        }
+    }
+
+    private void compileQueryConfiguration(
+            final String location,
+            final GlobalConfiguration.QueryConfiguration queryConfiguration,
+            final List<String> errors
+    ) {
+        if (nonNull(queryConfiguration)) {
+            compilePattern(location, queryConfiguration, queryConfiguration.getRegex(), errors);
+        }
+    }
+
+    private void compilePattern(
+            final String location,
+            final GlobalConfiguration.PatternHolder patternHolder,
+            final String regex,
+            final List<String> errors
+    ) {
+        if (isNull(regex)) {
+            return;
+        }
+        try {
+            patternHolder.setPattern(Pattern.compile(regex));
+        } catch (PatternSyntaxException e) {
+            errors.add("%s has an invalid regex '%s': %s".formatted(location, regex, e.getDescription()));
+        }
+    }
+
+}
@@ -1,14 +1,21 @@
 package io.archura.router.configuration;
 
 import io.archura.router.config.GlobalConfiguration;
-import io.archura.router.mapping.Mapper;
+import io.archura.router.configuration.event.GlobalConfigurationChangedEvent;
+import io.archura.router.configuration.exception.GlobalConfigurationCompileException;
+import io.archura.router.domain.DomainConfigurationStore;
+import io.archura.router.domain.DomainPreloader;
+import io.archura.router.mapping.GlobalConfigurationReader;
 import io.archura.router.notification.event.NotificationServerConnectedEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.ApplicationListener;
 import org.springframework.stereotype.Component;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.ConnectException;
 import java.net.URI;
 import java.net.http.HttpClient;
@@ -16,27 +23,115 @@ import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.Executors;
+import java.util.zip.GZIPInputStream;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
 
 @Slf4j
 @RequiredArgsConstructor
 @Component
 public class GlobalConfigurationListener implements ApplicationListener<NotificationServerConnectedEvent> {
 
+    private static final String ACCEPT_ENCODING = "Accept-Encoding";
+    private static final String CONTENT_ENCODING = "Content-Encoding";
+    private static final String IF_NONE_MATCH = "If-None-Match";
+    private static final String ETAG = "ETag";
+    private static final String GZIP = "gzip";
+
     private final GlobalConfiguration globalConfiguration;
-    private final Mapper mapper;
+    private final GlobalConfigurationReader globalConfigurationReader;
+    private final GlobalConfigurationCompiler globalConfigurationCompiler;
+    private final ConfigurationSnapshotHolder configurationSnapshotHolder;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final DomainPreloader domainPreloader;
+    private final DomainConfigurationStore domainConfigurationStore;
+    private final GlobalConfigurationSnapshotFile globalConfigurationSnapshotFile;
     private volatile boolean globalConfigurationFetched = false;
+    private volatile String configurationETag;
+    private volatile byte[] configurationContentHash;
 
     public void loadFileConfiguration(final Path filePath) throws IOException {
         try {
-            final String fileContent = Files.readString(filePath);
-            final GlobalConfiguration from = mapper.readValue(fileContent, GlobalConfiguration.class);
-            globalConfiguration.copy(from);
+            final GlobalConfiguration from;
+            try (InputStream inputStream = Files.newInputStream(filePath)) {
+                from = globalConfigurationReader.read(inputStream);
+            }
+            applyConfiguration(from);
         } catch (IOException e) {
             log.error("Failed to read configuration file: '{}'", filePath, e);
             throw e;
+        } catch (GlobalConfigurationCompileException e) {
+            log.error("Configuration file '{}' is invalid, errors: {}", filePath, e.getErrors());
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the configuration file again and applies only the domains that changed.
+     * If the global filters or the upstreams changed, the whole configuration is applied as if it was loaded for the first time.
+     */
+    public void reloadFileConfiguration(final Path filePath) throws IOException {
+        final GlobalConfiguration from;
+        try (InputStream inputStream = Files.newInputStream(filePath)) {
+            from = globalConfigurationReader.read(inputStream);
+        }
+        final ConfigurationSnapshot current = configurationSnapshotHolder.current();
+        if (!current.getPreFilters().equals(nullToEmpty(from.getPreFilters()))
+                || !current.getPostFilters().equals(nullToEmpty(from.getPostFilters()))
+                || !nullToEmpty(globalConfiguration.getUpstreams()).equals(nullToEmpty(from.getUpstreams()))) {
+            log.debug("Global filters or upstreams changed, applying the whole configuration file");
+            applyConfiguration(from);
+            return;
+        }
+        final Map<String, GlobalConfiguration.DomainConfiguration> domains = nullToEmpty(from.getDomains());
+        final Map<String, GlobalConfiguration.DomainConfiguration> changedDomains = new HashMap<>();
+        for (Map.Entry<String, GlobalConfiguration.DomainConfiguration> entry : domains.entrySet()) {
+            if (!Objects.equals(current.getDomains().get(entry.getKey()), entry.getValue())) {
+                changedDomains.put(entry.getKey(), globalConfigurationCompiler.compile(entry.getKey(), entry.getValue()));
+            }
+        }
+        final Set<String> removedDomains = new HashSet<>(current.getDomains().keySet());
+        removedDomains.removeAll(domains.keySet());
+        if (changedDomains.isEmpty() && removedDomains.isEmpty()) {
+            log.debug("Configuration file changed, no domain changes found");
+            return;
+        }
+        configurationSnapshotHolder.update(from.getVersion(), currentDomains -> {
+            currentDomains.putAll(changedDomains);
+            currentDomains.keySet().removeAll(removedDomains);
+            return currentDomains;
+        });
+        changedDomains.keySet().forEach(domainConfigurationStore::invalidate);
+        removedDomains.forEach(domainConfigurationStore::invalidate);
+        log.info("Configuration file reloaded, changed domains: {}, removed domains: {}", changedDomains.keySet(), removedDomains);
+    }
+
+    /**
+     * Loads the last configuration fetched from the configuration server from the snapshot file.
+     * Returns false if there is no valid snapshot or it can not be compiled.
+     */
+    public boolean loadSnapshotConfiguration() {
+        final Optional<GlobalConfiguration> from = globalConfigurationSnapshotFile.load();
+        if (from.isEmpty()) {
+            return false;
+        }
+        try {
+            applyConfiguration(from.get());
+            return true;
+        } catch (GlobalConfigurationCompileException e) {
+            log.error("Configuration snapshot is invalid, errors: {}", e.getErrors());
+            return false;
         }
     }
 
@@ -46,49 +141,125 @@ public class GlobalConfigurationListener implements ApplicationListener<Notifica
         fetchGlobalConfiguration();
     }
 
+    /**
+     * Fetches the whole configuration from the configuration server again, i.e. when configuration deltas are missed.
+     * The request is not conditional, the fetched configuration is applied even if its content is not changed.
+     */
+    public void resync() {
+        configurationETag = null;
+        configurationContentHash = null;
+        fetchGlobalConfiguration();
+    }
+
     private void fetchGlobalConfiguration() {
         this.globalConfigurationFetched = false;
         final HttpRequest request = createHttpRequest();
         // loop until configuration is fetched
         while (!this.globalConfigurationFetched) {
             try {
-                final GlobalConfiguration from = fetchGlobalConfiguration(request);
-                // update global configuration
-                globalConfiguration.copy(from);
+                final Optional<FetchedConfiguration> fetched = fetchGlobalConfiguration(request);
+                if (fetched.isEmpty()) {
+                    log.debug("Configuration is not modified, etag: '{}'", configurationETag);
+                } else if (isNull(fetched.get().configuration())) {
+                    configurationETag = fetched.get().eTag();
+                    log.debug("Configuration content is not changed, etag: '{}'", configurationETag);
+                } else {
+                    final GlobalConfiguration from = fetched.get().configuration();
+                    // update global configuration
+                    applyConfiguration(from);
+                    saveSnapshot(from);
+                    configurationETag = fetched.get().eTag();
+                    configurationContentHash = fetched.get().contentHash();
+                    log.debug("Configuration fetched from configuration server");
+                }
                 // break loop
                 this.globalConfigurationFetched = true;
-                log.debug("Configuration fetched from configuration server");
+            } catch (GlobalConfigurationCompileException e) {
+                // fetching again returns the same invalid configuration, keep the current configuration
+                log.error("Configuration fetched from configuration server is invalid, current configuration stays in use, errors: {}", e.getErrors());
+                this.globalConfigurationFetched = true;
             } catch (IOException e) {
                 waitAndContinue();
             }
         }
     }
 
+    private void applyConfiguration(final GlobalConfiguration from) {
+        globalConfiguration.copy(globalConfigurationCompiler.compile(from));
+        configurationSnapshotHolder.publish(globalConfiguration);
+        applicationEventPublisher.publishEvent(new GlobalConfigurationChangedEvent(globalConfiguration));
+        domainPreloader.preload();
+    }
+
+    private static <V> Map<String, V> nullToEmpty(final Map<String, V> map) {
+        return isNull(map) ? Map.of() : map;
+    }
+
+    private void saveSnapshot(final GlobalConfiguration from) {
+        if (globalConfigurationSnapshotFile.isEnabled()) {
+            Thread.startVirtualThread(() -> {
+                try {
+                    globalConfigurationSnapshotFile.save(from);
+                } catch (IOException e) {
+                    log.error("Failed to save configuration snapshot", e);
+                }
+            });
+        }
+    }
+
     private HttpRequest createHttpRequest() {
         // prepare request builder
         HttpRequest.Builder builder = HttpRequest.newBuilder();
         for (Map.Entry<String, String> entry : globalConfiguration.getConfigurationServerRequestHeaders().entrySet()) {
             builder = builder.header(entry.getKey(), entry.getValue());
         }
+        builder = builder.header(ACCEPT_ENCODING, GZIP);
+        // conditional request, server may respond with 304 if the configuration is not changed
+        if (nonNull(configurationETag)) {
+            builder = builder.header(IF_NONE_MATCH, configurationETag);
+        }
         // prepare request
-        final String url = "%s/global".formatted(globalConfiguration.getConfigurationServerURL());
+        String url = "%s/global".formatted(globalConfiguration.getConfigurationServerURL());
+        if (nonNull(configurationContentHash)) {
+            // configuration deltas advance the snapshot version, the global configuration keeps the version of the last full fetch
+            url = "%s?version=%d".formatted(url, configurationSnapshotHolder.current().getConfigurationVersion());
+        }
         return builder
                 .uri(URI.create(url))
                 .GET()
                 .build();
     }
 
-    private GlobalConfiguration fetchGlobalConfiguration(final HttpRequest request) throws IOException {
+    /**
+     * Fetches the configuration, returns empty if the configuration server responds with 304 Not Modified.
+     * The content hash is calculated over the decompressed response before it is parsed,
+     * the configuration is parsed only if the hash differs from the hash of the current configuration, otherwise it is null.
+     */
+    private Optional<FetchedConfiguration> fetchGlobalConfiguration(final HttpRequest request) throws IOException {
         try {
             final HttpClient httpClient = createHttpClient();
             // send request
-            final HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-            // handle response
-            if (response.statusCode() != 200) {
-                throw new IOException("Configuration server returned status code " + response.statusCode());
+            final HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            try (InputStream body = response.body()) {
+                // handle response
+                if (response.statusCode() == 304) {
+                    return Optional.empty();
+                }
+                if (response.statusCode() != 200) {
+                    throw new IOException("Configuration server returned status code " + response.statusCode());
+                }
+                final InputStream content = response.headers().firstValue(CONTENT_ENCODING)
+                        .filter(GZIP::equalsIgnoreCase)
+                        .isPresent() ? new GZIPInputStream(body) : body;
+                final byte[] bytes = content.readAllBytes();
+                final byte[] contentHash = createMessageDigest().digest(bytes);
+                final String eTag = response.headers().firstValue(ETAG).orElse(null);
+                if (MessageDigest.isEqual(contentHash, configurationContentHash)) {
+                    return Optional.of(new FetchedConfiguration(null, eTag, contentHash));
+                }
+                final GlobalConfiguration from = globalConfigurationReader.read(new ByteArrayInputStream(bytes));
+                return Optional.of(new FetchedConfiguration(from, eTag, contentHash));
             }
-            // parse response
-            return mapper.readValue(response.body(), GlobalConfiguration.class);
         } catch (IOException | InterruptedException e) {
             final String error = "Failed to connect to configuration server, url: '%s', exception: '%s', message: '%s'"
                     .formatted(
@@ -101,6 +272,14 @@ public class GlobalConfigurationListener implements ApplicationListener<Notifica
         }
     }
 
+    private MessageDigest createMessageDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     private HttpClient createHttpClient() {
         return HttpClient.newBuilder()
                 .executor(Executors.newVirtualThreadPerTaskExecutor())
@@ -116,4 +295,7 @@ public class GlobalConfigurationListener implements ApplicationListener<Notifica
         }
     }
 
+    private record FetchedConfiguration(GlobalConfiguration configuration, String eTag, byte[] contentHash) {
+    }
+
 }
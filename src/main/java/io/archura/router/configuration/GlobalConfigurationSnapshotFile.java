@@ -0,0 +1,137 @@
+package io.archura.router.configuration;
+
+import io.archura.router.config.GlobalConfiguration;
+import io.archura.router.mapping.GlobalConfigurationReader;
+import io.archura.router.mapping.GlobalConfigurationWriter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Persists the last good global configuration fetched from the configuration server to 'archura.configuration.snapshot.path',
+ * so the router can start from it without waiting for the configuration server.
+ * The file starts with a fixed size header, followed by the deflated JSON of the configuration:
+ * magic (4 bytes), format version (2 bytes), configuration version (8 bytes), creation time (8 bytes),
+ * payload length (4 bytes), CRC32 of the payload (8 bytes).
+ * The payload is parsed like the configuration file, the header only lets a truncated or corrupted file be ignored before parsing.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class GlobalConfigurationSnapshotFile {
+
+    private static final int MAGIC = 0x41524353;
+    private static final short FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 4 + 2 + 8 + 8 + 4 + 8;
+
+    private final GlobalConfiguration globalConfiguration;
+    private final GlobalConfigurationReader globalConfigurationReader;
+    private final GlobalConfigurationWriter globalConfigurationWriter;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public boolean isEnabled() {
+        return !isNull(globalConfiguration.getConfigurationSnapshotPath());
+    }
+
+    /**
+     * Writes the configuration to the snapshot file, the previous snapshot is replaced atomically.
+     */
+    public void save(final GlobalConfiguration configuration) throws IOException {
+        if (!isEnabled()) {
+            return;
+        }
+        final Path path = globalConfiguration.getConfigurationSnapshotPath();
+        final ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        try (DeflaterOutputStream outputStream = new DeflaterOutputStream(payload)) {
+            globalConfigurationWriter.write(configuration, outputStream);
+        }
+        final byte[] payloadBytes = payload.toByteArray();
+        final CRC32 crc32 = new CRC32();
+        crc32.update(payloadBytes);
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                .putInt(MAGIC)
+                .putShort(FORMAT_VERSION)
+                .putLong(configuration.getVersion())
+                .putLong(System.currentTimeMillis())
+                .putInt(payloadBytes.length)
+                .putLong(crc32.getValue())
+                .flip();
+        lock.lock();
+        try {
+            final Path directory = path.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            final Path temporaryPath = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+            try (FileChannel channel = FileChannel.open(temporaryPath, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                final ByteBuffer body = ByteBuffer.wrap(payloadBytes);
+                while (header.hasRemaining() || body.hasRemaining()) {
+                    channel.write(new ByteBuffer[]{header, body});
+                }
+                channel.force(true);
+            }
+            Files.move(temporaryPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("Configuration snapshot saved, version: {}, size: {} bytes", configuration.getVersion(), HEADER_SIZE + payloadBytes.length);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reads the configuration from the snapshot file, returns an empty optional if there is no valid snapshot.
+     */
+    public Optional<GlobalConfiguration> load() {
+        if (!isEnabled() || !Files.isRegularFile(globalConfiguration.getConfigurationSnapshotPath())) {
+            return Optional.empty();
+        }
+        final Path path = globalConfiguration.getConfigurationSnapshotPath();
+        try {
+            final byte[] bytes = Files.readAllBytes(path);
+            if (bytes.length < HEADER_SIZE) {
+                log.warn("Configuration snapshot '{}' is too short, ignoring it", path);
+                return Optional.empty();
+            }
+            final ByteBuffer header = ByteBuffer.wrap(bytes, 0, HEADER_SIZE);
+            final int magic = header.getInt();
+            final short formatVersion = header.getShort();
+            final long version = header.getLong();
+            final long createdAt = header.getLong();
+            final int payloadLength = header.getInt();
+            final long checksum = header.getLong();
+            if (magic != MAGIC || formatVersion != FORMAT_VERSION || payloadLength != bytes.length - HEADER_SIZE) {
+                log.warn("Configuration snapshot '{}' has an unknown format, ignoring it", path);
+                return Optional.empty();
+            }
+            final CRC32 crc32 = new CRC32();
+            crc32.update(bytes, HEADER_SIZE, payloadLength);
+            if (crc32.getValue() != checksum) {
+                log.warn("Configuration snapshot '{}' is corrupted, ignoring it", path);
+                return Optional.empty();
+            }
+            try (InputStream inputStream = new InflaterInputStream(new ByteArrayInputStream(bytes, HEADER_SIZE, payloadLength))) {
+                final GlobalConfiguration configuration = globalConfigurationReader.read(inputStream);
+                log.debug("Configuration snapshot loaded, version: {}, created at: {}", version, createdAt);
+                return Optional.of(configuration);
+            }
+        } catch (IOException e) {
+            log.error("Failed to read configuration snapshot: '{}'", path, e);
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package io.archura.router.configuration.event;
+
+import io.archura.router.config.GlobalConfiguration;
+import org.springframework.context.ApplicationEvent;
+
+public class GlobalConfigurationChangedEvent extends ApplicationEvent {
+
+    public GlobalConfigurationChangedEvent(final GlobalConfiguration globalConfiguration) {
+        super(globalConfiguration);
+    }
+
+    @Override
+    public GlobalConfiguration getSource() {
+        return (GlobalConfiguration) super.getSource();
+    }
+}
@@ -0,0 +1,17 @@
+package io.archura.router.configuration.exception;
+
+import java.util.List;
+
+public class GlobalConfigurationCompileException extends RuntimeException {
+
+    private final List<String> errors;
+
+    public GlobalConfigurationCompileException(final List<String> errors) {
+        super("Global configuration is invalid, errors: %s".formatted(errors));
+        this.errors = List.copyOf(errors);
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+}
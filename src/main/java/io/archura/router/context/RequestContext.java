@@ -0,0 +1,97 @@
+package io.archura.router.context;
+
+import io.archura.router.cache.CacheRequest;
+import io.archura.router.config.GlobalConfiguration;
+import io.archura.router.configuration.ConfigurationSnapshot;
+import io.archura.router.template.RequestVariableResolver;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Enumeration;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static io.archura.router.filter.ArchuraKeys.RESTRICTED_HEADER_NAMES;
+import static java.util.Objects.nonNull;
+
+/**
+ * State of a single request shared by the filters, i.e. the pinned configuration snapshot,
+ * the current domain, tenant and route, the client IP, the request headers and the request variables.
+ * Contexts are pooled by the {@link RequestContextPool}, a context must not be used after its request is completed.
+ */
+@Getter
+@Setter
+public class RequestContext {
+
+    @Setter(AccessLevel.NONE)
+    private HttpServletRequest httpServletRequest;
+    @Setter(AccessLevel.NONE)
+    private ConfigurationSnapshot configurationSnapshot;
+    private GlobalConfiguration.DomainConfiguration domain;
+    private GlobalConfiguration.TenantConfiguration tenant;
+    private GlobalConfiguration.RouteConfiguration route;
+    private String clientIp;
+    private RequestVariableResolver variables;
+
+    /**
+     * Set by the caching filter when the response of the request should be stored in the response cache.
+     */
+    private CacheRequest cacheRequest;
+
+    /**
+     * Downstream request timeout in milliseconds set by the filters, 0 uses the request timeout of the upstream.
+     */
+    private long downstreamRequestTimeout;
+
+    /**
+     * Request headers without the restricted headers, names are case-insensitive and keep the case they are first put with.
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private final Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean headersLoaded;
+
+    void init(final HttpServletRequest httpServletRequest, final ConfigurationSnapshot configurationSnapshot) {
+        this.httpServletRequest = httpServletRequest;
+        this.configurationSnapshot = configurationSnapshot;
+    }
+
+    void clear() {
+        httpServletRequest = null;
+        configurationSnapshot = null;
+        domain = null;
+        tenant = null;
+        route = null;
+        clientIp = null;
+        variables = null;
+        cacheRequest = null;
+        downstreamRequestTimeout = 0;
+        headers.clear();
+        headersLoaded = false;
+    }
+
+    /**
+     * Returns the mutable request headers, the headers are read from the request the first time they are asked for.
+     * Only the first value of a header is kept.
+     */
+    public Map<String, String> getHeaders() {
+        if (!headersLoaded) {
+            headersLoaded = true;
+            if (nonNull(httpServletRequest)) {
+                final Enumeration<String> headerNames = httpServletRequest.getHeaderNames();
+                while (headerNames.hasMoreElements()) {
+                    final String headerName = headerNames.nextElement();
+                    if (!RESTRICTED_HEADER_NAMES.contains(headerName.toLowerCase()) && !headers.containsKey(headerName)) {
+                        headers.put(headerName, httpServletRequest.getHeader(headerName));
+                    }
+                }
+            }
+        }
+        return headers;
+    }
+
+}
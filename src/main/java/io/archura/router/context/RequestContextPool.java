@@ -0,0 +1,67 @@
+package io.archura.router.context;
+
+import io.archura.router.config.GlobalConfiguration;
+import io.archura.router.configuration.ConfigurationSnapshot;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Pool of request contexts, at most 'archura.request.context.pool.size' contexts are kept.
+ * Contexts are created when the pool is empty, and dropped when they are released to a full pool.
+ */
+@Component
+public class RequestContextPool {
+
+    private final BlockingQueue<RequestContext> requestContexts;
+    private final LongAdder allocations = new LongAdder();
+    private final LongAdder reuses = new LongAdder();
+
+    public RequestContextPool(final GlobalConfiguration globalConfiguration) {
+        this.requestContexts = new ArrayBlockingQueue<>(Math.max(1, globalConfiguration.getRequestContextPoolSize()));
+    }
+
+    /**
+     * Returns a context for the request from the pool or a new one, the context should be released when the request is completed.
+     */
+    public RequestContext acquire(
+            final HttpServletRequest httpServletRequest,
+            final ConfigurationSnapshot configurationSnapshot
+    ) {
+        RequestContext requestContext = requestContexts.poll();
+        if (isNull(requestContext)) {
+            allocations.increment();
+            requestContext = new RequestContext();
+        } else {
+            reuses.increment();
+        }
+        requestContext.init(httpServletRequest, configurationSnapshot);
+        return requestContext;
+    }
+
+    /**
+     * Clears the context and returns it to the pool, the context must not be used after it is released.
+     */
+    public void release(final RequestContext requestContext) {
+        requestContext.clear();
+        requestContexts.offer(requestContext);
+    }
+
+    public long getPooled() {
+        return requestContexts.size();
+    }
+
+    public long getAllocations() {
+        return allocations.sum();
+    }
+
+    public long getReuses() {
+        return reuses.sum();
+    }
+
+}
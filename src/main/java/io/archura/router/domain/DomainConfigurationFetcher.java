@@ -0,0 +1,157 @@
+package io.archura.router.domain;
+
+import io.archura.router.cache.LruCache;
+import io.archura.router.config.GlobalConfiguration;
+import io.archura.router.configuration.GlobalConfigurationCompiler;
+import io.archura.router.configuration.exception.GlobalConfigurationCompileException;
+import io.archura.router.mapping.Mapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Fetches domain configurations that are not part of the global configuration from the configuration server.
+ * Concurrent requests for the same domain share a single fetch, and domains the configuration server does not know
+ * are remembered for 'archura.domain.not-found.cache.ttl' milliseconds, so unknown hosts do not reach the configuration server again.
+ */
+@Slf4j
+@Component
+public class DomainConfigurationFetcher {
+
+    private final GlobalConfiguration globalConfiguration;
+    private final GlobalConfigurationCompiler globalConfigurationCompiler;
+    private final Mapper mapper;
+    private final ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor();
+    private final HttpClient httpClient;
+    private final Map<String, CompletableFuture<Optional<GlobalConfiguration.DomainConfiguration>>> inFlightFetches = new ConcurrentHashMap<>();
+    private final LruCache<String, Long> notFoundDomains;
+    private final long notFoundTtlMillis;
+    private final LongAdder fetches = new LongAdder();
+    private final LongAdder notFoundHits = new LongAdder();
+
+    public DomainConfigurationFetcher(
+            final GlobalConfiguration globalConfiguration,
+            final GlobalConfigurationCompiler globalConfigurationCompiler,
+            final Mapper mapper
+    ) {
+        this.globalConfiguration = globalConfiguration;
+        this.globalConfigurationCompiler = globalConfigurationCompiler;
+        this.mapper = mapper;
+        this.httpClient = HttpClient.newBuilder()
+                .executor(executorService)
+                .connectTimeout(Duration.ofMillis(globalConfiguration.getConfigurationServerConnectionTimeout()))
+                .build();
+        this.notFoundDomains = new LruCache<>(Math.max(1, globalConfiguration.getDomainNotFoundCacheSize()));
+        this.notFoundTtlMillis = globalConfiguration.getDomainNotFoundCacheTtl();
+    }
+
+    /**
+     * Returns the configuration of the domain, or an empty optional if the configuration server does not know it or can not be reached.
+     */
+    public Optional<GlobalConfiguration.DomainConfiguration> fetch(final String domain) {
+        if (isKnownNotFound(domain)) {
+            notFoundHits.increment();
+            return Optional.empty();
+        }
+        final CompletableFuture<Optional<GlobalConfiguration.DomainConfiguration>> fetch = new CompletableFuture<>();
+        final CompletableFuture<Optional<GlobalConfiguration.DomainConfiguration>> inFlightFetch = inFlightFetches.putIfAbsent(domain, fetch);
+        if (nonNull(inFlightFetch)) {
+            // another request is already fetching this domain, wait for its result
+            return inFlightFetch.join();
+        }
+        try {
+            final Optional<GlobalConfiguration.DomainConfiguration> domainConfiguration = fetchDomainConfiguration(domain);
+            fetch.complete(domainConfiguration);
+            return domainConfiguration;
+        } catch (RuntimeException e) {
+            fetch.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightFetches.remove(domain, fetch);
+        }
+    }
+
+    public long getFetches() {
+        return fetches.sum();
+    }
+
+    public long getNotFoundHits() {
+        return notFoundHits.sum();
+    }
+
+    private boolean isKnownNotFound(final String domain) {
+        final Long expiresAt = notFoundDomains.get(domain);
+        if (isNull(expiresAt)) {
+            return false;
+        }
+        if (expiresAt > System.currentTimeMillis()) {
+            return true;
+        }
+        notFoundDomains.remove(domain);
+        return false;
+    }
+
+    private Optional<GlobalConfiguration.DomainConfiguration> fetchDomainConfiguration(final String domain) {
+        fetches.increment();
+        try {
+            final HttpRequest httpRequest = createHttpRequest(domain);
+            // send request
+            final HttpResponse<String> response = httpClient.send(httpRequest, HttpResponse.BodyHandlers.ofString());
+            // handle response
+            if (response.statusCode() == 200) {
+                // parse response
+                final GlobalConfiguration.DomainConfiguration domainConfiguration =
+                        mapper.readValue(response.body(), GlobalConfiguration.DomainConfiguration.class);
+                if (nonNull(domainConfiguration)) {
+                    return Optional.of(globalConfigurationCompiler.compile(domain, domainConfiguration));
+                }
+            } else if (response.statusCode() == 404) {
+                log.debug("Domain configuration not found for domain: '{}'", domain);
+                notFoundDomains.put(domain, System.currentTimeMillis() + notFoundTtlMillis);
+            } else {
+                log.error("Error while fetching domain configuration, status code: {}", response.statusCode());
+            }
+        } catch (GlobalConfigurationCompileException e) {
+            log.error("Domain configuration of '{}' is invalid, errors: {}", domain, e.getErrors());
+        } catch (IllegalArgumentException e) {
+            log.debug("Invalid domain name: '{}'", domain);
+            notFoundDomains.put(domain, System.currentTimeMillis() + notFoundTtlMillis);
+        } catch (InterruptedException | IOException e) {
+            log.error("Error while fetching domain configuration", e);
+        }
+        return Optional.empty();
+    }
+
+    private HttpRequest createHttpRequest(final String domain) {
+        // prepare request builder
+        HttpRequest.Builder builder = HttpRequest.newBuilder();
+        for (Map.Entry<String, String> entry : globalConfiguration.getConfigurationServerRequestHeaders().entrySet()) {
+            builder = builder.header(entry.getKey(), entry.getValue());
+        }
+        // prepare request
+        final String url = "%s/domain/%s".formatted(globalConfiguration.getConfigurationServerURL(), domain);
+        final URI uri = URI.create(url);
+        return builder
+                .timeout(Duration.ofMillis(globalConfiguration.getConfigurationServerConnectionTimeout()))
+                .uri(uri)
+                .GET()
+                .build();
+    }
+
+}
@@ -0,0 +1,110 @@
+package io.archura.router.domain;
+
+import io.archura.router.cache.LruCache;
+import io.archura.router.config.GlobalConfiguration;
+import io.archura.router.configuration.ConfigurationSnapshot;
+import io.archura.router.configuration.event.GlobalConfigurationChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.Objects.nonNull;
+
+/**
+ * Domain configurations for the requests.
+ * Domains of the global configuration are always available, other domains are loaded on demand from the configuration server
+ * and kept in a size bounded LRU cache of 'archura.domain.cache.size' entries, evicted domains are loaded again when they are requested.
+ */
+@Slf4j
+@Component
+public class DomainConfigurationStore implements ApplicationListener<GlobalConfigurationChangedEvent> {
+
+    private final DomainConfigurationFetcher domainConfigurationFetcher;
+    private final LruCache<String, GlobalConfiguration.DomainConfiguration> loadedDomains;
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadTimeNanos = new LongAdder();
+    private final LongAccumulator maxLoadTimeNanos = new LongAccumulator(Long::max, 0);
+
+    public DomainConfigurationStore(
+            final GlobalConfiguration globalConfiguration,
+            final DomainConfigurationFetcher domainConfigurationFetcher
+    ) {
+        this.domainConfigurationFetcher = domainConfigurationFetcher;
+        this.loadedDomains = new LruCache<>(Math.max(1, globalConfiguration.getDomainCacheSize()));
+    }
+
+    /**
+     * Returns the configuration of the domain from the given snapshot, from the loaded domains, or loads it from the configuration server.
+     */
+    public Optional<GlobalConfiguration.DomainConfiguration> find(
+            final ConfigurationSnapshot configurationSnapshot,
+            final String domain
+    ) {
+        final GlobalConfiguration.DomainConfiguration configuredDomain = configurationSnapshot.getDomains().get(domain);
+        if (nonNull(configuredDomain)) {
+            return Optional.of(configuredDomain);
+        }
+        final GlobalConfiguration.DomainConfiguration loadedDomain = loadedDomains.get(domain);
+        if (nonNull(loadedDomain)) {
+            return Optional.of(loadedDomain);
+        }
+        final long start = System.nanoTime();
+        final Optional<GlobalConfiguration.DomainConfiguration> fetchedDomain = domainConfigurationFetcher.fetch(domain);
+        final long loadTime = System.nanoTime() - start;
+        loads.increment();
+        loadTimeNanos.add(loadTime);
+        maxLoadTimeNanos.accumulate(loadTime);
+        fetchedDomain.ifPresent(domainConfiguration -> loadedDomains.put(domain, domainConfiguration));
+        return fetchedDomain;
+    }
+
+    /**
+     * Removes a loaded domain, i.e. when the domain is changed by a configuration delta.
+     */
+    public void invalidate(final String domain) {
+        loadedDomains.remove(domain);
+    }
+
+    @Override
+    public void onApplicationEvent(final GlobalConfigurationChangedEvent event) {
+        log.debug("Configuration changed, clearing loaded domains, size: {}, loads: {}, evictions: {}",
+                getSize(), getLoads(), getEvictions());
+        loadedDomains.clear();
+    }
+
+    public long getSize() {
+        return loadedDomains.size();
+    }
+
+    public long getHits() {
+        return loadedDomains.getHits();
+    }
+
+    public long getMisses() {
+        return loadedDomains.getMisses();
+    }
+
+    public long getEvictions() {
+        return loadedDomains.getEvictions();
+    }
+
+    public long getLoads() {
+        return loads.sum();
+    }
+
+    /**
+     * Returns the average time spent loading a domain from the configuration server, in milliseconds.
+     */
+    public double getAverageLoadTimeMillis() {
+        final long count = loads.sum();
+        return count == 0 ? 0 : loadTimeNanos.sum() / 1_000_000.0 / count;
+    }
+
+    public double getMaxLoadTimeMillis() {
+        return maxLoadTimeNanos.get() / 1_000_000.0;
+    }
+}
@@ -0,0 +1,64 @@
+package io.archura.router.domain;
+
+import io.archura.router.config.GlobalConfiguration;
+import io.archura.router.configuration.ConfigurationSnapshot;
+import io.archura.router.configuration.ConfigurationSnapshotHolder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Loads the domains listed in 'archura.domain.preload.names' into the {@link DomainConfigurationStore},
+ * so the first request of a domain does not wait for the configuration server.
+ * Domains are loaded on virtual threads, at most 'archura.domain.preload.parallelism' at a time.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DomainPreloader {
+
+    private final GlobalConfiguration globalConfiguration;
+    private final ConfigurationSnapshotHolder configurationSnapshotHolder;
+    private final DomainConfigurationStore domainConfigurationStore;
+
+    public void preload() {
+        final List<String> domains = globalConfiguration.getDomainPreloadNames();
+        if (isNull(domains) || domains.isEmpty()) {
+            return;
+        }
+        if (domains.size() > globalConfiguration.getDomainCacheSize()) {
+            log.warn("{} domains configured to preload, but only {} fit in the domain cache", domains.size(), globalConfiguration.getDomainCacheSize());
+        }
+        final long start = System.currentTimeMillis();
+        final ConfigurationSnapshot configurationSnapshot = configurationSnapshotHolder.current();
+        final Semaphore permits = new Semaphore(Math.max(1, globalConfiguration.getDomainPreloadParallelism()));
+        final LongAdder notFound = new LongAdder();
+        try (ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (String domain : domains) {
+                permits.acquire();
+                executorService.submit(() -> {
+                    try {
+                        if (domainConfigurationStore.find(configurationSnapshot, domain).isEmpty()) {
+                            notFound.increment();
+                        }
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Domain preload interrupted");
+            return;
+        }
+        log.info("Preloaded {} domains in {} ms, not found: {}", domains.size(), System.currentTimeMillis() - start, notFound.sum());
+    }
+}
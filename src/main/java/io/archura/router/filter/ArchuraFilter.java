@@ -1,6 +1,7 @@
 package io.archura.router.filter;
 
 import io.archura.router.config.GlobalConfiguration;
+import io.archura.router.context.RequestContext;
 import io.archura.router.filter.exception.ArchuraFilterException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -9,6 +10,7 @@ public interface ArchuraFilter {
 
     void doFilter(
             GlobalConfiguration.FilterConfiguration configuration,
+            RequestContext requestContext,
             HttpServletRequest httpServletRequest,
             HttpServletResponse httpServletResponse
     ) throws ArchuraFilterException;
@@ -0,0 +1,41 @@
+package io.archura.router.filter;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Publishes a buffered response body as a single item, so a shared response is written with the same {@link ResponseBodySubscriber}
+ * as a streamed downstream response. Each subscriber receives its own view of the body.
+ */
+class BufferedBodyPublisher implements Flow.Publisher<List<ByteBuffer>> {
+
+    private final byte[] body;
+
+    BufferedBodyPublisher(final byte[] body) {
+        this.body = body;
+    }
+
+    @Override
+    public void subscribe(final Flow.Subscriber<? super List<ByteBuffer>> subscriber) {
+        final AtomicBoolean done = new AtomicBoolean();
+        subscriber.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(final long n) {
+                if (n > 0 && done.compareAndSet(false, true)) {
+                    if (body.length > 0) {
+                        subscriber.onNext(List.of(ByteBuffer.wrap(body)));
+                    }
+                    subscriber.onComplete();
+                }
+            }
+
+            @Override
+            public void cancel() {
+                done.set(true);
+            }
+        });
+    }
+
+}
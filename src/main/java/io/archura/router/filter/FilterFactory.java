@@ -1,5 +1,6 @@
 package io.archura.router.filter;
 
+import io.archura.router.config.GlobalConfiguration;
 import io.archura.router.filter.internal.UnknownFilter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -7,8 +8,11 @@ import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
+import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 
 @Slf4j
@@ -17,6 +21,7 @@ import static java.util.Objects.nonNull;
 public class FilterFactory {
 
     private final BeanFactory beanFactory;
+    private final Map<String, ArchuraFilter> filters = new ConcurrentHashMap<>();
 
     @Autowired(required = false)
     private CustomFilterRegistry customFilterRegistry;
@@ -25,6 +30,27 @@ public class FilterFactory {
         return findFilter(filterName);
     }
 
+    /**
+     * Resolves the filters of the given filter map once, in the iteration order of the map.
+     */
+    public FilterPipeline createPipeline(final Map<String, GlobalConfiguration.FilterConfiguration> filterConfigurations) {
+        if (isNull(filterConfigurations) || filterConfigurations.isEmpty()) {
+            return FilterPipeline.EMPTY;
+        }
+        final int size = filterConfigurations.size();
+        final String[] names = new String[size];
+        final ArchuraFilter[] pipelineFilters = new ArchuraFilter[size];
+        final GlobalConfiguration.FilterConfiguration[] configurations = new GlobalConfiguration.FilterConfiguration[size];
+        int index = 0;
+        for (Map.Entry<String, GlobalConfiguration.FilterConfiguration> entry : filterConfigurations.entrySet()) {
+            names[index] = entry.getKey();
+            pipelineFilters[index] = findFilter(entry.getKey());
+            configurations[index] = entry.getValue();
+            index++;
+        }
+        return new FilterPipeline(names, pipelineFilters, configurations);
+    }
+
     private ArchuraFilter findFilter(String filterName) {
         if (nonNull(customFilterRegistry)) {
             final Optional<ArchuraFilter> customFilter = customFilterRegistry.findFilter(filterName);
@@ -32,6 +58,10 @@ public class FilterFactory {
                 return customFilter.get();
             }
         }
+        return filters.computeIfAbsent(filterName, this::findFilterBean);
+    }
+
+    private ArchuraFilter findFilterBean(String filterName) {
         try {
             final String filterBeanName = "%s%s%s".formatted(filterName.substring(0, 1).toLowerCase(), filterName.substring(1), "Filter");
             return beanFactory.getBean(filterBeanName, ArchuraFilter.class);
@@ -0,0 +1,48 @@
+package io.archura.router.filter;
+
+import io.archura.router.config.GlobalConfiguration;
+
+/**
+ * Ordered filters of a filter map, resolved to their {@link ArchuraFilter} instances when the configuration is compiled.
+ * The filters, their configurations and their names are kept in parallel arrays,
+ * so running a pipeline is an array loop without any filter lookups.
+ */
+public class FilterPipeline {
+
+    public static final FilterPipeline EMPTY = new FilterPipeline(
+            new String[0],
+            new ArchuraFilter[0],
+            new GlobalConfiguration.FilterConfiguration[0]
+    );
+
+    private final String[] names;
+    private final ArchuraFilter[] filters;
+    private final GlobalConfiguration.FilterConfiguration[] configurations;
+
+    FilterPipeline(
+            final String[] names,
+            final ArchuraFilter[] filters,
+            final GlobalConfiguration.FilterConfiguration[] configurations
+    ) {
+        this.names = names;
+        this.filters = filters;
+        this.configurations = configurations;
+    }
+
+    public int size() {
+        return filters.length;
+    }
+
+    public String getName(final int index) {
+        return names[index];
+    }
+
+    public ArchuraFilter getFilter(final int index) {
+        return filters[index];
+    }
+
+    public GlobalConfiguration.FilterConfiguration getConfiguration(final int index) {
+        return configurations[index];
+    }
+
+}
@@ -1,12 +1,30 @@
 package io.archura.router.filter;
 
+import io.archura.router.buffer.BufferPool;
+import io.archura.router.cache.ResponseCache;
+import io.archura.router.cache.ResponseCapture;
 import io.archura.router.config.GlobalConfiguration;
+import io.archura.router.configuration.ConfigurationSnapshot;
+import io.archura.router.configuration.ConfigurationSnapshotHolder;
+import io.archura.router.context.RequestContext;
+import io.archura.router.context.RequestContextPool;
 import io.archura.router.filter.exception.ArchuraFilterException;
+import io.archura.router.upstream.CoalescedCall;
+import io.archura.router.upstream.CoalescedResponse;
+import io.archura.router.upstream.RequestCoalescer;
+import io.archura.router.upstream.UpstreamClient;
+import io.archura.router.upstream.UpstreamClientRegistry;
+import io.archura.router.upstream.UpstreamEndpoint;
+import io.archura.router.upstream.exception.UpstreamUnavailableException;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
 import jakarta.servlet.Filter;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.FilterConfig;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletOutputStream;
 import jakarta.servlet.ServletResponse;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -15,21 +33,24 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.SequenceInputStream;
 import java.net.URI;
-import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
 import java.time.Duration;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.Executors;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.locks.ReentrantLock;
 
-import static io.archura.router.filter.ArchuraKeys.ARCHURA_CURRENT_DOMAIN;
-import static io.archura.router.filter.ArchuraKeys.ARCHURA_CURRENT_ROUTE;
-import static io.archura.router.filter.ArchuraKeys.ARCHURA_CURRENT_TENANT;
-import static io.archura.router.filter.ArchuraKeys.ARCHURA_DOWNSTREAM_CONNECTION_TIMEOUT;
 import static io.archura.router.filter.ArchuraKeys.RESTRICTED_HEADER_NAMES;
 import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
@@ -39,14 +60,20 @@ import static java.util.Objects.nonNull;
 @RequiredArgsConstructor
 public class InitialFilter implements Filter {
 
-    private final HttpClient httpClient = HttpClient.newBuilder()
-            .connectTimeout(Duration.ofMillis(ARCHURA_DOWNSTREAM_CONNECTION_TIMEOUT))
-            .executor(Executors.newVirtualThreadPerTaskExecutor())
-            .version(HttpClient.Version.HTTP_2)
-            .build();
+    /**
+     * Milliseconds added to the downstream request timeout for the asynchronous request timeout,
+     * so a downstream request that times out is answered with an error response before the asynchronous request times out.
+     */
+    private static final long ASYNC_TIMEOUT_MARGIN = 1_000;
 
     private final GlobalConfiguration globalConfiguration;
+    private final ConfigurationSnapshotHolder configurationSnapshotHolder;
     private final FilterFactory filterFactory;
+    private final BufferPool bufferPool;
+    private final UpstreamClientRegistry upstreamClientRegistry;
+    private final RequestContextPool requestContextPool;
+    private final ResponseCache responseCache;
+    private final RequestCoalescer requestCoalescer;
 
     @Override
     public void init(FilterConfig filterConfig) throws ServletException {
@@ -62,7 +89,23 @@ public class InitialFilter implements Filter {
         log.debug("↓ InitialFilter started");
         if (servletRequest instanceof HttpServletRequest httpServletRequest
                 && servletResponse instanceof HttpServletResponse httpServletResponse) {
-            handleHttpRequest(httpServletRequest, httpServletResponse);
+            // pin the current configuration snapshot for the whole request
+            final ConfigurationSnapshot configurationSnapshot = configurationSnapshotHolder.acquire();
+            final RequestContext requestContext = requestContextPool.acquire(httpServletRequest, configurationSnapshot);
+            try {
+                handleHttpRequest(requestContext, httpServletRequest, httpServletResponse);
+            } finally {
+                if (httpServletRequest.isAsyncStarted()) {
+                    // release the context and the snapshot when the asynchronous request is completed
+                    httpServletRequest.getAsyncContext().addListener(new CompletionAsyncListener(() -> {
+                        requestContextPool.release(requestContext);
+                        configurationSnapshotHolder.release(configurationSnapshot);
+                    }));
+                } else {
+                    requestContextPool.release(requestContext);
+                    configurationSnapshotHolder.release(configurationSnapshot);
+                }
+            }
             log.debug("↑ InitialFilter finished");
         } else {
             log.debug("InitialFilter will not handle the request");
@@ -72,46 +115,31 @@ public class InitialFilter implements Filter {
     }
 
     private void handleHttpRequest(
+            final RequestContext requestContext,
             final HttpServletRequest httpServletRequest,
             final HttpServletResponse httpServletResponse
     ) {
         try {
             // run global pre-filters, domain pre-filters, tenant pre-filters, and route pre-filters
-            runGlobalPreFilters(httpServletRequest, httpServletResponse);
-            runDomainPreFilters(httpServletRequest, httpServletResponse);
-            runTenantPreFilters(httpServletRequest, httpServletResponse);
-            runRoutePreFilters(httpServletRequest, httpServletResponse);
+            runGlobalPreFilters(requestContext, httpServletRequest, httpServletResponse);
+            runDomainPreFilters(requestContext, httpServletRequest, httpServletResponse);
+            runTenantPreFilters(requestContext, httpServletRequest, httpServletResponse);
+            runRoutePreFilters(requestContext, httpServletRequest, httpServletResponse);
 
             // handle request if not handled by the pre-filters
             if (!httpServletResponse.isCommitted()) {
                 // handle current route
-                final GlobalConfiguration.RouteConfiguration currentRoute = (GlobalConfiguration.RouteConfiguration) httpServletRequest.getAttribute(ARCHURA_CURRENT_ROUTE);
+                final GlobalConfiguration.RouteConfiguration currentRoute = requestContext.getRoute();
                 final GlobalConfiguration.PredefinedResponseConfiguration predefinedResponseConfiguration = currentRoute.getPredefinedResponseConfiguration();
                 if (nonNull(predefinedResponseConfiguration)) {
                     // handle predefined response
                     handlePredefinedResponse(httpServletResponse, predefinedResponseConfiguration);
+                } else if (globalConfiguration.isProxyAsyncEnabled()) {
+                    // handle downstream request asynchronously
+                    handleDownstreamRequestAsync(requestContext, httpServletRequest, httpServletResponse, currentRoute);
                 } else {
                     // handle downstream request
-                    // send downstream request and get response
-                    final HttpRequest httpRequest = buildHttpRequest(httpServletRequest);
-                    log.debug("executing route: '%s', will send downstream request: %s %s".formatted(currentRoute.getName(), httpRequest.method(), httpRequest.uri()));
-                    final HttpResponse<InputStream> httpResponse = httpClient.send(httpRequest, HttpResponse.BodyHandlers.ofInputStream());
-                    log.debug("executing route: '%s', got downstream response code: %s ".formatted(currentRoute.getName(), httpResponse.statusCode()));
-                    populateHttpServletResponse(httpServletResponse, httpResponse);
-
-                    // run global post-filters, domain post-filters, tenant post-filters, and route post-filters
-                    runGlobalPostFilters(httpServletRequest, httpServletResponse);
-                    runDomainPostFilters(httpServletRequest, httpServletResponse);
-                    runTenantPostFilters(httpServletRequest, httpServletResponse);
-                    runRoutePostFilters(httpServletRequest, httpServletResponse);
-
-                    if (!httpServletResponse.isCommitted()) {
-                        // read response from downstream server and write to client
-                        writeToHttpServletResponse(httpServletResponse, httpResponse);
-                        log.debug("executing route: '%s', response written to client".formatted(currentRoute.getName()));
-                    } else {
-                        log.debug("request already handled by the post-filters");
-                    }
+                    handleDownstreamRequest(requestContext, httpServletRequest, httpServletResponse, currentRoute);
                 }
 
             } else {
@@ -138,30 +166,554 @@ public class InitialFilter implements Filter {
         }
     }
 
-    private void runGlobalPreFilters(HttpServletRequest httpServletRequest, HttpServletResponse httpServletResponse) {
+    private void handleDownstreamRequest(
+            final RequestContext requestContext,
+            final HttpServletRequest httpServletRequest,
+            final HttpServletResponse httpServletResponse,
+            final GlobalConfiguration.RouteConfiguration currentRoute
+    ) throws IOException, InterruptedException {
+        final UpstreamClient upstreamClient = upstreamClientRegistry.getClient(currentRoute.getMapConfiguration().getUpstream());
+        final CoalescedCall coalescedCall = joinCoalescedCall(requestContext, httpServletRequest, currentRoute);
+        if (nonNull(coalescedCall) && !coalescedCall.isLeader()) {
+            // wait for the response of the identical request in flight, send own request if it is not shared
+            final Optional<CoalescedResponse> coalescedResponse = requestCoalescer.await(coalescedCall, downstreamRequestTimeout(requestContext, upstreamClient));
+            if (coalescedResponse.isPresent()) {
+                log.debug("executing route: '%s', got coalesced downstream response code: %s ".formatted(currentRoute.getName(), coalescedResponse.get().status()));
+                writeDownstreamResponse(requestContext, httpServletRequest, httpServletResponse, currentRoute,
+                        coalescedResponse.get().status(), coalescedResponse.get().headers(), new ByteArrayInputStream(coalescedResponse.get().body()));
+                return;
+            }
+            sendDownstreamRequest(requestContext, httpServletRequest, httpServletResponse, currentRoute, upstreamClient, null);
+            return;
+        }
+        try {
+            sendDownstreamRequest(requestContext, httpServletRequest, httpServletResponse, currentRoute, upstreamClient, coalescedCall);
+        } finally {
+            abandonCoalescedCall(coalescedCall);
+        }
+    }
+
+    /**
+     * Sends the downstream request and writes the downstream response, a coalescing leader shares the response with the waiting requests.
+     * A request that could not connect to its endpoint is retried once on another healthy endpoint of the upstream.
+     */
+    private void sendDownstreamRequest(
+            final RequestContext requestContext,
+            final HttpServletRequest httpServletRequest,
+            final HttpServletResponse httpServletResponse,
+            final GlobalConfiguration.RouteConfiguration currentRoute,
+            final UpstreamClient upstreamClient,
+            final CoalescedCall leaderCall
+    ) throws IOException, InterruptedException {
+        Optional<UpstreamEndpoint> upstreamEndpoint = selectEndpoint(upstreamClient);
+        try {
+            // send downstream request and get response
+            HttpRequest httpRequest = buildHttpRequest(requestContext, httpServletRequest, upstreamClient, upstreamEndpoint);
+            log.debug("executing route: '%s', will send downstream request: %s %s".formatted(currentRoute.getName(), httpRequest.method(), httpRequest.uri()));
+            long start = System.nanoTime();
+            HttpResponse<InputStream> httpResponse = null;
+            boolean retried = false;
+            while (isNull(httpResponse)) {
+                try {
+                    httpResponse = upstreamClient.getHttpClient().send(httpRequest, HttpResponse.BodyHandlers.ofInputStream());
+                } catch (IOException e) {
+                    upstreamEndpoint.ifPresent(endpoint -> upstreamClient.reportFailure(endpoint, e));
+                    try {
+                        if (!UpstreamClient.isConnectFailure(e)) {
+                            throw e;
+                        }
+                        final UpstreamEndpoint retryEndpoint = selectRetryEndpoint(upstreamClient, upstreamEndpoint, retried, e);
+                        upstreamEndpoint.ifPresent(UpstreamEndpoint::release);
+                        upstreamEndpoint = Optional.of(retryEndpoint);
+                        httpRequest = retryHttpRequest(httpRequest, retryEndpoint);
+                        retried = true;
+                        log.debug("executing route: '%s', will retry downstream request: %s %s".formatted(currentRoute.getName(), httpRequest.method(), httpRequest.uri()));
+                        start = System.nanoTime();
+                    } catch (IOException | ArchuraFilterException ex) {
+                        if (nonNull(leaderCall)) {
+                            requestCoalescer.fail(leaderCall, ex);
+                        }
+                        throw ex;
+                    }
+                }
+            }
+            final long latency = System.nanoTime() - start;
+            upstreamEndpoint.ifPresent(endpoint -> endpoint.recordLatency(latency));
+            log.debug("executing route: '%s', got downstream response code: %s ".formatted(currentRoute.getName(), httpResponse.statusCode()));
+            final InputStream responseBody = nonNull(leaderCall)
+                    ? shareResponse(leaderCall, httpResponse, currentRoute)
+                    : httpResponse.body();
+            writeDownstreamResponse(requestContext, httpServletRequest, httpServletResponse, currentRoute,
+                    httpResponse.statusCode(), httpResponse.headers(), responseBody);
+        } finally {
+            upstreamEndpoint.ifPresent(UpstreamEndpoint::release);
+        }
+    }
+
+    /**
+     * Buffers the response body of a coalescing leader and shares the response with the waiting requests.
+     * If the body is larger than the maximum shared body size, the waiting requests send their own requests,
+     * and the leader continues with the buffered part of the body followed by the rest of the body.
+     */
+    private InputStream shareResponse(
+            final CoalescedCall leaderCall,
+            final HttpResponse<InputStream> httpResponse,
+            final GlobalConfiguration.RouteConfiguration currentRoute
+    ) throws IOException {
+        final int maximumBodySize = maximumCoalescedBodySize(currentRoute);
+        final InputStream responseBody = httpResponse.body();
+        if (!requestCoalescer.isShareable(httpResponse.headers())
+                || httpResponse.headers().firstValueAsLong("content-length").orElse(-1) > maximumBodySize) {
+            requestCoalescer.abandon(leaderCall);
+            return responseBody;
+        }
+        final byte[] body;
+        try {
+            body = responseBody.readNBytes(maximumBodySize + 1);
+        } catch (IOException e) {
+            requestCoalescer.fail(leaderCall, e);
+            throw e;
+        }
+        if (body.length > maximumBodySize) {
+            requestCoalescer.abandon(leaderCall);
+            return new SequenceInputStream(new ByteArrayInputStream(body), responseBody);
+        }
+        responseBody.close();
+        requestCoalescer.share(leaderCall, new CoalescedResponse(httpResponse.statusCode(), httpResponse.headers(), body));
+        return new ByteArrayInputStream(body);
+    }
+
+    private void writeDownstreamResponse(
+            final RequestContext requestContext,
+            final HttpServletRequest httpServletRequest,
+            final HttpServletResponse httpServletResponse,
+            final GlobalConfiguration.RouteConfiguration currentRoute,
+            final int status,
+            final HttpHeaders headers,
+            final InputStream responseBody
+    ) throws IOException {
+        populateHttpServletResponse(httpServletResponse, status, headers);
+
+        // run global post-filters, domain post-filters, tenant post-filters, and route post-filters
+        runGlobalPostFilters(requestContext, httpServletRequest, httpServletResponse);
+        runDomainPostFilters(requestContext, httpServletRequest, httpServletResponse);
+        runTenantPostFilters(requestContext, httpServletRequest, httpServletResponse);
+        runRoutePostFilters(requestContext, httpServletRequest, httpServletResponse);
+
+        if (!httpServletResponse.isCommitted()) {
+            // read response from downstream server and write to client
+            writeToHttpServletResponse(requestContext, httpServletResponse, status, headers, responseBody);
+            log.debug("executing route: '%s', response written to client".formatted(currentRoute.getName()));
+        } else {
+            log.debug("request already handled by the post-filters");
+        }
+    }
+
+    /**
+     * Sends the downstream request and writes the downstream response without blocking the request thread.
+     * Request and response bodies are streamed with servlet non-blocking I/O,
+     * the request is completed when the response body is written or an error occurs.
+     */
+    private void handleDownstreamRequestAsync(
+            final RequestContext requestContext,
+            final HttpServletRequest httpServletRequest,
+            final HttpServletResponse httpServletResponse,
+            final GlobalConfiguration.RouteConfiguration currentRoute
+    ) {
+        final AsyncContext asyncContext = httpServletRequest.startAsync();
+        final UpstreamClient upstreamClient = upstreamClientRegistry.getClient(currentRoute.getMapConfiguration().getUpstream());
+        final CoalescedCall coalescedCall = joinCoalescedCall(requestContext, httpServletRequest, currentRoute);
+        final boolean waitsForCoalescedCall = nonNull(coalescedCall) && !coalescedCall.isLeader();
+        // a waiting request may send its own downstream request after waiting for the shared response
+        final long downstreamRequestTimeout = downstreamRequestTimeout(requestContext, upstreamClient);
+        final TimeoutAsyncListener timeoutListener = new TimeoutAsyncListener(downstreamRequestTimeout);
+        asyncContext.addListener(timeoutListener);
+        asyncContext.setTimeout(downstreamRequestTimeout * (waitsForCoalescedCall ? 2 : 1) + ASYNC_TIMEOUT_MARGIN);
+        if (waitsForCoalescedCall) {
+            // wait for the response of the identical request in flight, send own request if it is not shared
+            final CompletableFuture<Optional<CoalescedResponse>> sharedResponse = requestCoalescer.awaitAsync(coalescedCall, downstreamRequestTimeout);
+            timeoutListener.setCancelAction(() -> sharedResponse.cancel(false));
+            sharedResponse
+                    .whenComplete((coalescedResponse, throwable) -> {
+                        if (!timeoutListener.claim()) {
+                            return;
+                        }
+                        try {
+                            if (nonNull(throwable)) {
+                                log.error("Error occurred while handling request", throwable);
+                                writeErrorAndComplete(asyncContext, httpServletResponse, HttpStatus.INTERNAL_SERVER_ERROR.value(), throwable);
+                            } else if (coalescedResponse.isPresent()) {
+                                log.debug("executing route: '%s', got coalesced downstream response code: %s ".formatted(currentRoute.getName(), coalescedResponse.get().status()));
+                                writeDownstreamResponseAsync(asyncContext, timeoutListener, requestContext, httpServletRequest, httpServletResponse,
+                                        coalescedResponse.get().status(), coalescedResponse.get().headers(), new BufferedBodyPublisher(coalescedResponse.get().body()));
+                            } else {
+                                sendDownstreamRequestAsync(asyncContext, timeoutListener, requestContext, httpServletRequest, httpServletResponse,
+                                        currentRoute, upstreamClient, null);
+                            }
+                        } finally {
+                            timeoutListener.release();
+                        }
+                    });
+            return;
+        }
+        sendDownstreamRequestAsync(asyncContext, timeoutListener, requestContext, httpServletRequest, httpServletResponse,
+                currentRoute, upstreamClient, coalescedCall);
+    }
+
+    private void sendDownstreamRequestAsync(
+            final AsyncContext asyncContext,
+            final TimeoutAsyncListener timeoutListener,
+            final RequestContext requestContext,
+            final HttpServletRequest httpServletRequest,
+            final HttpServletResponse httpServletResponse,
+            final GlobalConfiguration.RouteConfiguration currentRoute,
+            final UpstreamClient upstreamClient,
+            final CoalescedCall leaderCall
+    ) {
+        final Optional<UpstreamEndpoint> upstreamEndpoint;
+        final HttpRequest httpRequest;
+        try {
+            upstreamEndpoint = selectEndpoint(upstreamClient);
+            upstreamEndpoint.ifPresent(endpoint -> asyncContext.addListener(new CompletionAsyncListener(endpoint::release)));
+            httpRequest = buildHttpRequest(requestContext, httpServletRequest, upstreamClient, upstreamEndpoint);
+        } catch (ArchuraFilterException e) {
+            log.error("Error occurred while handling request", e);
+            abandonCoalescedCall(leaderCall);
+            writeErrorAndComplete(asyncContext, httpServletResponse, e.getStatusCode(), e);
+            return;
+        } catch (RuntimeException e) {
+            log.error("Error occurred while handling request", e);
+            abandonCoalescedCall(leaderCall);
+            writeErrorAndComplete(asyncContext, httpServletResponse, HttpStatus.INTERNAL_SERVER_ERROR.value(), e);
+            return;
+        }
+        sendHttpRequestAsync(asyncContext, timeoutListener, requestContext, httpServletRequest, httpServletResponse,
+                currentRoute, upstreamClient, leaderCall, httpRequest, upstreamEndpoint, false);
+    }
+
+    /**
+     * Sends the downstream request to the selected endpoint, a request that could not connect to the endpoint
+     * is retried once on another healthy endpoint of the upstream.
+     */
+    private void sendHttpRequestAsync(
+            final AsyncContext asyncContext,
+            final TimeoutAsyncListener timeoutListener,
+            final RequestContext requestContext,
+            final HttpServletRequest httpServletRequest,
+            final HttpServletResponse httpServletResponse,
+            final GlobalConfiguration.RouteConfiguration currentRoute,
+            final UpstreamClient upstreamClient,
+            final CoalescedCall leaderCall,
+            final HttpRequest httpRequest,
+            final Optional<UpstreamEndpoint> upstreamEndpoint,
+            final boolean retried
+    ) {
+        log.debug("executing route: '%s', will send asynchronous downstream request: %s %s".formatted(currentRoute.getName(), httpRequest.method(), httpRequest.uri()));
+        final long start = System.nanoTime();
+        final CompletableFuture<HttpResponse<Flow.Publisher<List<ByteBuffer>>>> downstreamResponse =
+                upstreamClient.getHttpClient().sendAsync(httpRequest, HttpResponse.BodyHandlers.ofPublisher());
+        timeoutListener.setCancelAction(() -> downstreamResponse.cancel(true));
+        downstreamResponse
+                .whenComplete((httpResponse, throwable) -> {
+                    if (!timeoutListener.claim()) {
+                        // the request is already completed, only the waiting requests of a coalesced call are released
+                        abandonCoalescedCall(leaderCall);
+                        if (isNull(throwable)) {
+                            httpResponse.body().subscribe(HttpResponse.BodySubscribers.discarding());
+                        }
+                        return;
+                    }
+                    try {
+                        if (nonNull(throwable)) {
+                            log.error("Error occurred while handling request", throwable);
+                            upstreamEndpoint.ifPresent(endpoint -> upstreamClient.reportFailure(endpoint, throwable));
+                            int statusCode = HttpStatus.INTERNAL_SERVER_ERROR.value();
+                            Throwable error = throwable;
+                            if (UpstreamClient.isConnectFailure(throwable)) {
+                                try {
+                                    final UpstreamEndpoint retryEndpoint = selectRetryEndpoint(upstreamClient, upstreamEndpoint, retried, throwable);
+                                    asyncContext.addListener(new CompletionAsyncListener(retryEndpoint::release));
+                                    sendHttpRequestAsync(asyncContext, timeoutListener, requestContext, httpServletRequest, httpServletResponse,
+                                            currentRoute, upstreamClient, leaderCall, retryHttpRequest(httpRequest, retryEndpoint), Optional.of(retryEndpoint), true);
+                                    return;
+                                } catch (ArchuraFilterException e) {
+                                    statusCode = e.getStatusCode();
+                                    error = e;
+                                }
+                            }
+                            if (nonNull(leaderCall)) {
+                                requestCoalescer.fail(leaderCall, error);
+                            }
+                            writeErrorAndComplete(asyncContext, httpServletResponse, statusCode, error);
+                            return;
+                        }
+                        upstreamEndpoint.ifPresent(endpoint -> endpoint.recordLatency(System.nanoTime() - start));
+                        log.debug("executing route: '%s', got downstream response code: %s ".formatted(currentRoute.getName(), httpResponse.statusCode()));
+                        if (nonNull(leaderCall)) {
+                            shareResponseAsync(asyncContext, timeoutListener, requestContext, httpServletRequest, httpServletResponse,
+                                    currentRoute, leaderCall, httpResponse);
+                        } else {
+                            writeDownstreamResponseAsync(asyncContext, timeoutListener, requestContext, httpServletRequest, httpServletResponse,
+                                    httpResponse.statusCode(), httpResponse.headers(), httpResponse.body());
+                        }
+                    } finally {
+                        timeoutListener.release();
+                    }
+                });
+    }
+
+    /**
+     * Buffers the response body of a coalescing leader and shares the response with the waiting requests.
+     * Only bodies with a known length up to the maximum shared body size are buffered,
+     * otherwise the waiting requests send their own requests and the leader streams its response.
+     */
+    private void shareResponseAsync(
+            final AsyncContext asyncContext,
+            final TimeoutAsyncListener timeoutListener,
+            final RequestContext requestContext,
+            final HttpServletRequest httpServletRequest,
+            final HttpServletResponse httpServletResponse,
+            final GlobalConfiguration.RouteConfiguration currentRoute,
+            final CoalescedCall leaderCall,
+            final HttpResponse<Flow.Publisher<List<ByteBuffer>>> httpResponse
+    ) {
+        final long contentLength = httpResponse.headers().firstValueAsLong("content-length").orElse(-1);
+        if (!requestCoalescer.isShareable(httpResponse.headers())
+                || contentLength < 0 || contentLength > maximumCoalescedBodySize(currentRoute)) {
+            requestCoalescer.abandon(leaderCall);
+            writeDownstreamResponseAsync(asyncContext, timeoutListener, requestContext, httpServletRequest, httpServletResponse,
+                    httpResponse.statusCode(), httpResponse.headers(), httpResponse.body());
+            return;
+        }
+        final HttpResponse.BodySubscriber<byte[]> bodySubscriber = HttpResponse.BodySubscribers.ofByteArray();
+        httpResponse.body().subscribe(bodySubscriber);
+        bodySubscriber.getBody().whenComplete((body, throwable) -> {
+            if (nonNull(throwable)) {
+                log.error("Error occurred while reading downstream response body", throwable);
+                requestCoalescer.fail(leaderCall, throwable);
+            } else {
+                requestCoalescer.share(leaderCall, new CoalescedResponse(httpResponse.statusCode(), httpResponse.headers(), body));
+            }
+            if (!timeoutListener.claim()) {
+                return;
+            }
+            try {
+                if (nonNull(throwable)) {
+                    writeErrorAndComplete(asyncContext, httpServletResponse, HttpStatus.INTERNAL_SERVER_ERROR.value(), throwable);
+                } else {
+                    writeDownstreamResponseAsync(asyncContext, timeoutListener, requestContext, httpServletRequest, httpServletResponse,
+                            httpResponse.statusCode(), httpResponse.headers(), new BufferedBodyPublisher(body));
+                }
+            } finally {
+                timeoutListener.release();
+            }
+        });
+    }
+
+    private void writeDownstreamResponseAsync(
+            final AsyncContext asyncContext,
+            final TimeoutAsyncListener timeoutListener,
+            final RequestContext requestContext,
+            final HttpServletRequest httpServletRequest,
+            final HttpServletResponse httpServletResponse,
+            final int status,
+            final HttpHeaders headers,
+            final Flow.Publisher<List<ByteBuffer>> responseBody
+    ) {
+        try {
+            populateHttpServletResponse(httpServletResponse, status, headers);
+
+            // run global post-filters, domain post-filters, tenant post-filters, and route post-filters
+            runGlobalPostFilters(requestContext, httpServletRequest, httpServletResponse);
+            runDomainPostFilters(requestContext, httpServletRequest, httpServletResponse);
+            runTenantPostFilters(requestContext, httpServletRequest, httpServletResponse);
+            runRoutePostFilters(requestContext, httpServletRequest, httpServletResponse);
+
+            if (!httpServletResponse.isCommitted()) {
+                // stream response from downstream server to client, the whole body is not limited in time,
+                // but the body fails when no part of it is received or written for the downstream request timeout
+                asyncContext.setTimeout(0);
+                final ResponseCapture responseCapture = captureResponse(requestContext, httpServletResponse, status, headers).orElse(null);
+                responseBody.subscribe(new ResponseBodySubscriber(
+                        asyncContext, httpServletResponse.getOutputStream(), bufferPool, responseCapture, responseCache, timeoutListener.getIdleTimeout()));
+            } else {
+                log.debug("request already handled by the post-filters");
+                responseBody.subscribe(HttpResponse.BodySubscribers.discarding());
+                asyncContext.complete();
+            }
+        } catch (ArchuraFilterException e) {
+            log.error("Error occurred while handling request", e);
+            responseBody.subscribe(HttpResponse.BodySubscribers.discarding());
+            writeErrorAndComplete(asyncContext, httpServletResponse, e.getStatusCode(), e);
+        } catch (Exception e) {
+            log.error("Error occurred while handling request", e);
+            responseBody.subscribe(HttpResponse.BodySubscribers.discarding());
+            writeErrorAndComplete(asyncContext, httpServletResponse, HttpStatus.INTERNAL_SERVER_ERROR.value(), e);
+        }
+    }
+
+    /**
+     * Joins the call of identical concurrent requests if the route has a coalescing configuration, returns null otherwise.
+     * Only requests without a body are coalesced, i.e. GET and HEAD requests sent downstream as GET or HEAD requests.
+     * The key is the upstream, the downstream method, the downstream URL, and the configured downstream request headers.
+     * Requests with credentials, i.e. 'Authorization' or 'Cookie' headers, are only coalesced if the credential headers are key headers.
+     */
+    private CoalescedCall joinCoalescedCall(
+            final RequestContext requestContext,
+            final HttpServletRequest httpServletRequest,
+            final GlobalConfiguration.RouteConfiguration currentRoute
+    ) {
+        final GlobalConfiguration.MapConfiguration mapConfiguration = currentRoute.getMapConfiguration();
+        final GlobalConfiguration.CoalescingConfiguration coalescingConfiguration = mapConfiguration.getCoalescingConfiguration();
+        if (isNull(coalescingConfiguration) || !isBodyless(httpServletRequest.getMethod())) {
+            return null;
+        }
+        final String method = mapConfiguration.getMethodMap().getOrDefault(httpServletRequest.getMethod(), httpServletRequest.getMethod());
+        if (!isBodyless(method)) {
+            return null;
+        }
+        final List<String> keyHeaders = nonNull(coalescingConfiguration.getKeyHeaders()) ? coalescingConfiguration.getKeyHeaders() : List.of();
+        for (String credentialHeaderName : RequestCoalescer.CREDENTIAL_HEADER_NAMES) {
+            if (nonNull(downstreamRequestHeader(requestContext, mapConfiguration, credentialHeaderName))
+                    && keyHeaders.stream().noneMatch(credentialHeaderName::equalsIgnoreCase)) {
+                return null;
+            }
+        }
+        final StringBuilder key = new StringBuilder(128)
+                .append(mapConfiguration.getUpstream()).append('\n')
+                .append(method).append(' ').append(mapConfiguration.getUrl());
+        for (String headerName : keyHeaders) {
+            final String headerValue = downstreamRequestHeader(requestContext, mapConfiguration, headerName);
+            key.append('\n').append(headerName.toLowerCase()).append(':');
+            if (nonNull(headerValue)) {
+                key.append(headerValue);
+            }
+        }
+        return requestCoalescer.join(key.toString());
+    }
+
+    private String downstreamRequestHeader(
+            final RequestContext requestContext,
+            final GlobalConfiguration.MapConfiguration mapConfiguration,
+            final String headerName
+    ) {
+        final Map<String, String> mapHeaders = mapConfiguration.getHeaders();
+        return mapHeaders.containsKey(headerName)
+                ? mapHeaders.get(headerName)
+                : requestContext.getHeaders().get(headerName);
+    }
+
+    private boolean isBodyless(final String method) {
+        return "GET".equalsIgnoreCase(method) || "HEAD".equalsIgnoreCase(method);
+    }
+
+    private int maximumCoalescedBodySize(final GlobalConfiguration.RouteConfiguration currentRoute) {
+        final long maxBodyBytes = currentRoute.getMapConfiguration().getCoalescingConfiguration().getMaxBodyBytes();
+        return (int) Math.min(Integer.MAX_VALUE - 1, Math.max(0, maxBodyBytes));
+    }
+
+    /**
+     * Lets the requests waiting for the leader send their own requests, if the leader did not share its response.
+     */
+    private void abandonCoalescedCall(final CoalescedCall leaderCall) {
+        if (nonNull(leaderCall)) {
+            requestCoalescer.abandon(leaderCall);
+        }
+    }
+
+    /**
+     * Selects another healthy endpoint to retry a request that could not connect to the failed endpoint.
+     * Fails with 502 if the request was already retried or the upstream has no endpoints, and with 503 if no other endpoint is healthy.
+     */
+    private UpstreamEndpoint selectRetryEndpoint(
+            final UpstreamClient upstreamClient,
+            final Optional<UpstreamEndpoint> failedEndpoint,
+            final boolean retried,
+            final Throwable throwable
+    ) {
+        if (retried || failedEndpoint.isEmpty()) {
+            throw new ArchuraFilterException(HttpStatus.BAD_GATEWAY.value(), "Could not connect to upstream '%s'".formatted(upstreamClient.getName()), throwable);
+        }
+        try {
+            return upstreamClient.getLoadBalancer().select(failedEndpoint.get()).orElseThrow();
+        } catch (UpstreamUnavailableException e) {
+            throw new ArchuraFilterException(HttpStatus.SERVICE_UNAVAILABLE.value(), e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Returns the request sent to the retry endpoint, the request body was not sent since the request could not connect.
+     */
+    private HttpRequest retryHttpRequest(final HttpRequest httpRequest, final UpstreamEndpoint retryEndpoint) {
+        return HttpRequest.newBuilder(httpRequest, (name, value) -> true)
+                .uri(URI.create(retryEndpoint.resolve(httpRequest.uri().toString())))
+                .build();
+    }
+
+    /**
+     * Selects an endpoint of the upstream, fails fast with 503 if the upstream has endpoints but none of them is healthy.
+     */
+    private Optional<UpstreamEndpoint> selectEndpoint(final UpstreamClient upstreamClient) {
+        try {
+            return upstreamClient.getLoadBalancer().select();
+        } catch (UpstreamUnavailableException e) {
+            throw new ArchuraFilterException(HttpStatus.SERVICE_UNAVAILABLE.value(), e.getMessage(), e);
+        }
+    }
+
+    private void writeErrorAndComplete(
+            final AsyncContext asyncContext,
+            final HttpServletResponse httpServletResponse,
+            final int statusCode,
+            final Throwable throwable
+    ) {
+        try {
+            if (!httpServletResponse.isCommitted()) {
+                httpServletResponse.reset();
+                httpServletResponse.setStatus(statusCode);
+                final byte[] errorMessage = String.valueOf(throwable.getMessage()).getBytes();
+                httpServletResponse.setContentLength(errorMessage.length);
+                httpServletResponse.getOutputStream().write(errorMessage);
+            }
+        } catch (IOException | IllegalStateException ex) {
+            log.error("Error occurred while writing error message to response", ex);
+        } finally {
+            asyncContext.complete();
+        }
+    }
+
+    private void runGlobalPreFilters(
+            final RequestContext requestContext,
+            final HttpServletRequest httpServletRequest,
+            final HttpServletResponse httpServletResponse
+    ) {
         // run global pre-filters
         if (!httpServletResponse.isCommitted()) {
             log.debug("running global pre-filters");
-            runPreFilters(httpServletRequest, httpServletResponse, globalConfiguration.getPreFilters());
+            runPreFilters(requestContext, httpServletRequest, httpServletResponse, requestContext.getConfigurationSnapshot().getPreFilterPipeline());
         }
     }
 
-    private void runDomainPreFilters(HttpServletRequest httpServletRequest, HttpServletResponse httpServletResponse) {
+    private void runDomainPreFilters(
+            final RequestContext requestContext,
+            final HttpServletRequest httpServletRequest,
+            final HttpServletResponse httpServletResponse
+    ) {
         // run domain pre-filters
         if (!httpServletResponse.isCommitted()) {
             log.debug("running domain pre-filters");
             // get current domain configuration
-            if (isNull(httpServletRequest.getAttribute(ARCHURA_CURRENT_DOMAIN))) {
-                final GlobalConfiguration.DomainConfiguration defaultDomain = new GlobalConfiguration.DomainConfiguration();
-                httpServletRequest.setAttribute(ARCHURA_CURRENT_DOMAIN, defaultDomain);
+            if (isNull(requestContext.getDomain())) {
+                requestContext.setDomain(new GlobalConfiguration.DomainConfiguration());
             }
-            final GlobalConfiguration.DomainConfiguration domainConfiguration =
-                    (GlobalConfiguration.DomainConfiguration) httpServletRequest.getAttribute(ARCHURA_CURRENT_DOMAIN);
-            runPreFilters(httpServletRequest, httpServletResponse, domainConfiguration.getPreFilters());
+            final GlobalConfiguration.DomainConfiguration domainConfiguration = requestContext.getDomain();
+            runPreFilters(requestContext, httpServletRequest, httpServletResponse,
+                    filterPipeline(domainConfiguration.getPreFilterPipeline(), domainConfiguration.getPreFilters()));
         }
     }
 
     private void runTenantPreFilters(
+            final RequestContext requestContext,
             final HttpServletRequest httpServletRequest,
             final HttpServletResponse httpServletResponse
     ) {
@@ -169,38 +721,40 @@ public class InitialFilter implements Filter {
         if (!httpServletResponse.isCommitted()) {
             log.debug("running tenant pre-filters");
             // get current tenant configuration
-            if (isNull(httpServletRequest.getAttribute(ARCHURA_CURRENT_TENANT))) {
-                final GlobalConfiguration.TenantConfiguration defaultTenant = new GlobalConfiguration.TenantConfiguration();
-                httpServletRequest.setAttribute(ARCHURA_CURRENT_TENANT, defaultTenant);
+            if (isNull(requestContext.getTenant())) {
+                requestContext.setTenant(new GlobalConfiguration.TenantConfiguration());
             }
-            final GlobalConfiguration.TenantConfiguration tenantConfiguration =
-                    (GlobalConfiguration.TenantConfiguration) httpServletRequest.getAttribute(ARCHURA_CURRENT_TENANT);
-            runPreFilters(httpServletRequest, httpServletResponse, tenantConfiguration.getPreFilters());
+            final GlobalConfiguration.TenantConfiguration tenantConfiguration = requestContext.getTenant();
+            runPreFilters(requestContext, httpServletRequest, httpServletResponse,
+                    filterPipeline(tenantConfiguration.getPreFilterPipeline(), tenantConfiguration.getPreFilters()));
         }
     }
 
     private void runRoutePreFilters(
+            final RequestContext requestContext,
             final HttpServletRequest httpServletRequest,
             final HttpServletResponse httpServletResponse
     ) {
         // run route pre-filters
         if (!httpServletResponse.isCommitted()) {
             log.debug("running route pre-filters");
-            final GlobalConfiguration.RouteConfiguration routeConfiguration =
-                    (GlobalConfiguration.RouteConfiguration) httpServletRequest.getAttribute(ARCHURA_CURRENT_ROUTE);
-            runPreFilters(httpServletRequest, httpServletResponse, routeConfiguration.getPreFilters());
+            final GlobalConfiguration.RouteConfiguration routeConfiguration = requestContext.getRoute();
+            runPreFilters(requestContext, httpServletRequest, httpServletResponse,
+                    filterPipeline(routeConfiguration.getPreFilterPipeline(), routeConfiguration.getPreFilters()));
         }
     }
 
     private void runPreFilters(
+            final RequestContext requestContext,
             final HttpServletRequest httpServletRequest,
             final HttpServletResponse httpServletResponse,
-            final Map<String, GlobalConfiguration.FilterConfiguration> filters
+            final FilterPipeline filterPipeline
     ) {
-        for (Map.Entry<String, GlobalConfiguration.FilterConfiguration> filter : filters.entrySet()) {
-            runFilter(httpServletRequest, httpServletResponse, filter.getKey(), filter.getValue());
+        for (int index = 0; index < filterPipeline.size(); index++) {
+            log.debug("running filter '{}'", filterPipeline.getName(index));
+            filterPipeline.getFilter(index).doFilter(filterPipeline.getConfiguration(index), requestContext, httpServletRequest, httpServletResponse);
             if (httpServletResponse.isCommitted()) {
-                log.debug("request already handled by the pre-filter '%s', will stop processing".formatted(filter.getKey()));
+                log.debug("request already handled by the pre-filter '{}', will stop processing", filterPipeline.getName(index));
                 break;
             }
         }
@@ -219,11 +773,11 @@ public class InitialFilter implements Filter {
 
     private void populateHttpServletResponse(
             final HttpServletResponse httpServletResponse,
-            final HttpResponse<InputStream> httpResponse
+            final int responseStatus,
+            final HttpHeaders responseHeaders
     ) {
-        // get response status and content type
-        final int responseStatus = httpResponse.statusCode();
-        final String responseContentType = httpResponse.headers().firstValue("content-type")
+        // get response content type
+        final String responseContentType = responseHeaders.firstValue("content-type")
                 .orElse("text/plain");
 
         // set content type and character encoding
@@ -234,10 +788,10 @@ public class InitialFilter implements Filter {
             httpServletResponse.setCharacterEncoding("utf-8");
         }
         // set response headers
-        for (Map.Entry<String, List<String>> entry : httpResponse.headers().map().entrySet()) {
+        for (Map.Entry<String, List<String>> entry : responseHeaders.map().entrySet()) {
             final String headerName = entry.getKey();
             if (!RESTRICTED_HEADER_NAMES.contains(headerName)) {
-                httpResponse.headers().firstValue(headerName)
+                responseHeaders.firstValue(headerName)
                         .ifPresent(value -> httpServletResponse.setHeader(headerName, value));
             }
         }
@@ -247,17 +801,19 @@ public class InitialFilter implements Filter {
     }
 
     private void runGlobalPostFilters(
+            final RequestContext requestContext,
             final HttpServletRequest httpServletRequest,
             final HttpServletResponse httpServletResponse
     ) {
         // run global post-filters
         if (!httpServletResponse.isCommitted()) {
             log.debug("running global post-filters");
-            runPostFilters(httpServletRequest, httpServletResponse, globalConfiguration.getPostFilters());
+            runPostFilters(requestContext, httpServletRequest, httpServletResponse, requestContext.getConfigurationSnapshot().getPostFilterPipeline());
         }
     }
 
     private void runDomainPostFilters(
+            final RequestContext requestContext,
             final HttpServletRequest httpServletRequest,
             final HttpServletResponse httpServletResponse
     ) {
@@ -265,13 +821,14 @@ public class InitialFilter implements Filter {
         if (!httpServletResponse.isCommitted()) {
             log.debug("running domain post-filters");
             // get current domain configuration
-            final GlobalConfiguration.DomainConfiguration domainConfiguration =
-                    (GlobalConfiguration.DomainConfiguration) httpServletRequest.getAttribute(ARCHURA_CURRENT_DOMAIN);
-            runPostFilters(httpServletRequest, httpServletResponse, domainConfiguration.getPostFilters());
+            final GlobalConfiguration.DomainConfiguration domainConfiguration = requestContext.getDomain();
+            runPostFilters(requestContext, httpServletRequest, httpServletResponse,
+                    filterPipeline(domainConfiguration.getPostFilterPipeline(), domainConfiguration.getPostFilters()));
         }
     }
 
     private void runTenantPostFilters(
+            final RequestContext requestContext,
             final HttpServletRequest httpServletRequest,
             final HttpServletResponse httpServletResponse
     ) {
@@ -279,13 +836,14 @@ public class InitialFilter implements Filter {
         if (!httpServletResponse.isCommitted()) {
             log.debug("running tenant post-filters");
             // get current tenant configuration
-            final GlobalConfiguration.TenantConfiguration tenantConfiguration =
-                    (GlobalConfiguration.TenantConfiguration) httpServletRequest.getAttribute(ARCHURA_CURRENT_TENANT);
-            runPostFilters(httpServletRequest, httpServletResponse, tenantConfiguration.getPostFilters());
+            final GlobalConfiguration.TenantConfiguration tenantConfiguration = requestContext.getTenant();
+            runPostFilters(requestContext, httpServletRequest, httpServletResponse,
+                    filterPipeline(tenantConfiguration.getPostFilterPipeline(), tenantConfiguration.getPostFilters()));
         }
     }
 
     private void runRoutePostFilters(
+            final RequestContext requestContext,
             final HttpServletRequest httpServletRequest,
             final HttpServletResponse httpServletResponse
     ) {
@@ -293,46 +851,53 @@ public class InitialFilter implements Filter {
         if (!httpServletResponse.isCommitted()) {
             log.debug("running route post-filters");
             // get current route configuration
-            final GlobalConfiguration.RouteConfiguration currentRoute =
-                    (GlobalConfiguration.RouteConfiguration) httpServletRequest.getAttribute(ARCHURA_CURRENT_ROUTE);
-            runPostFilters(httpServletRequest, httpServletResponse, currentRoute.getPostFilters());
+            final GlobalConfiguration.RouteConfiguration currentRoute = requestContext.getRoute();
+            runPostFilters(requestContext, httpServletRequest, httpServletResponse,
+                    filterPipeline(currentRoute.getPostFilterPipeline(), currentRoute.getPostFilters()));
         }
     }
 
     private void runPostFilters(
+            final RequestContext requestContext,
             final HttpServletRequest httpServletRequest,
             final HttpServletResponse httpServletResponse,
-            final Map<String, GlobalConfiguration.FilterConfiguration> filters
+            final FilterPipeline filterPipeline
     ) {
-        for (Map.Entry<String, GlobalConfiguration.FilterConfiguration> filter : filters.entrySet()) {
-            runFilter(httpServletRequest, httpServletResponse, filter.getKey(), filter.getValue());
+        for (int index = 0; index < filterPipeline.size(); index++) {
+            log.debug("running filter '{}'", filterPipeline.getName(index));
+            filterPipeline.getFilter(index).doFilter(filterPipeline.getConfiguration(index), requestContext, httpServletRequest, httpServletResponse);
             if (httpServletResponse.isCommitted()) {
-                log.debug("request already handled by the post-filter '%s', will stop processing".formatted(filter.getKey()));
+                log.debug("request already handled by the post-filter '{}', will stop processing", filterPipeline.getName(index));
                 break;
             }
         }
     }
 
-    private void runFilter(
-            final HttpServletRequest httpServletRequest,
-            final HttpServletResponse httpServletResponse,
-            final String filterName,
-            final GlobalConfiguration.FilterConfiguration configuration
+    /**
+     * Returns the compiled filter pipeline, or resolves the filters of configurations that were not compiled,
+     * i.e. the default domain and tenant or the not found route.
+     */
+    private FilterPipeline filterPipeline(
+            final FilterPipeline filterPipeline,
+            final Map<String, GlobalConfiguration.FilterConfiguration> filters
     ) {
-        log.debug("running filter '%s'".formatted(filterName));
-        final ArchuraFilter filter = filterFactory.create(filterName);
-        filter.doFilter(configuration, httpServletRequest, httpServletResponse);
+        return nonNull(filterPipeline) ? filterPipeline : filterFactory.createPipeline(filters);
     }
 
     private HttpRequest buildHttpRequest(
-            final HttpServletRequest httpServletRequest
+            final RequestContext requestContext,
+            final HttpServletRequest httpServletRequest,
+            final UpstreamClient upstreamClient,
+            final Optional<UpstreamEndpoint> upstreamEndpoint
     ) {
-        final GlobalConfiguration.RouteConfiguration currentRoute = (GlobalConfiguration.RouteConfiguration) httpServletRequest.getAttribute(ARCHURA_CURRENT_ROUTE);
+        final GlobalConfiguration.RouteConfiguration currentRoute = requestContext.getRoute();
         final GlobalConfiguration.MapConfiguration currentRouteMapConfiguration = currentRoute.getMapConfiguration();
-        final String downstreamRequestUrl = currentRouteMapConfiguration.getUrl();
-        final Map<String, String> downstreamRequestHeaders = currentRouteMapConfiguration.getHeaders();
+        final String downstreamRequestUrl = upstreamEndpoint
+                .map(endpoint -> endpoint.resolve(currentRouteMapConfiguration.getUrl()))
+                .orElse(currentRouteMapConfiguration.getUrl());
+        final Map<String, String> downstreamRequestHeaders = downstreamRequestHeaders(requestContext, currentRouteMapConfiguration);
         final String downstreamRequestHttpMethod = currentRouteMapConfiguration.getMethodMap().getOrDefault(httpServletRequest.getMethod(), httpServletRequest.getMethod());
-        final long downstreamConnectionTimeout = httpServletRequest.getAttribute("archura.downstream.connection.timeout") != null ? (long) httpServletRequest.getAttribute("archura.downstream.connection.timeout") : ARCHURA_DOWNSTREAM_CONNECTION_TIMEOUT;
+        final long downstreamConnectionTimeout = downstreamRequestTimeout(requestContext, upstreamClient);
 
         // build downstream request
         return buildHttpRequest(
@@ -344,6 +909,29 @@ public class InitialFilter implements Filter {
         );
     }
 
+    private long downstreamRequestTimeout(final RequestContext requestContext, final UpstreamClient upstreamClient) {
+        return requestContext.getDownstreamRequestTimeout() > 0
+                ? requestContext.getDownstreamRequestTimeout()
+                : upstreamClient.getConfiguration().getRequestTimeout();
+    }
+
+    /**
+     * Request headers, with the changes of the header filters, overridden by the headers of the route's map configuration.
+     */
+    private Map<String, String> downstreamRequestHeaders(
+            final RequestContext requestContext,
+            final GlobalConfiguration.MapConfiguration mapConfiguration
+    ) {
+        final Map<String, String> mapHeaders = mapConfiguration.getHeaders();
+        if (mapHeaders.isEmpty()) {
+            return requestContext.getHeaders();
+        }
+        final Map<String, String> downstreamRequestHeaders = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        downstreamRequestHeaders.putAll(requestContext.getHeaders());
+        downstreamRequestHeaders.putAll(mapHeaders);
+        return downstreamRequestHeaders;
+    }
+
     private HttpRequest buildHttpRequest(
             final String downstreamRequestUrl,
             final Map<String, String> downstreamRequestHeaders,
@@ -362,29 +950,192 @@ public class InitialFilter implements Filter {
         if (requestHttpMethod.equalsIgnoreCase("POST")
                 || requestHttpMethod.equalsIgnoreCase("PUT")
                 || requestHttpMethod.equalsIgnoreCase("PATCH")) {
-            httpRequestBuilder = httpRequestBuilder.method(downstreamRequestHttpMethod, HttpRequest.BodyPublishers.ofInputStream(() -> {
-                try {
-                    return httpServletRequest.getInputStream();
-                } catch (IOException e) {
-                    throw new ArchuraFilterException(HttpStatus.BAD_REQUEST.value(), "Error while reading request body", e);
-                }
-            }));
+            httpRequestBuilder = httpRequestBuilder.method(downstreamRequestHttpMethod, createBodyPublisher(httpServletRequest));
         }
         return httpRequestBuilder.build();
     }
 
+    /**
+     * Bodies of asynchronous requests are read with servlet non-blocking reads as the downstream request demands.
+     * Other bodies with a known length up to 'archura.request.body.in-memory.limit' bytes are read into a single array of the exact size,
+     * larger and chunked bodies are streamed to the downstream server.
+     */
+    private HttpRequest.BodyPublisher createBodyPublisher(final HttpServletRequest httpServletRequest) {
+        final long contentLength = httpServletRequest.getContentLengthLong();
+        if (httpServletRequest.isAsyncStarted()) {
+            if (contentLength == 0) {
+                return HttpRequest.BodyPublishers.noBody();
+            }
+            try {
+                final RequestBodyPublisher bodyPublisher = new RequestBodyPublisher(httpServletRequest.getInputStream(), bufferPool.getBufferSize());
+                return contentLength >= 0
+                        ? HttpRequest.BodyPublishers.fromPublisher(bodyPublisher, contentLength)
+                        : HttpRequest.BodyPublishers.fromPublisher(bodyPublisher);
+            } catch (IOException e) {
+                throw new ArchuraFilterException(HttpStatus.BAD_REQUEST.value(), "Error while reading request body", e);
+            }
+        }
+        if (contentLength >= 0 && contentLength <= globalConfiguration.getRequestBodyInMemoryLimit()) {
+            try {
+                final byte[] body = new byte[(int) contentLength];
+                final int length = httpServletRequest.getInputStream().readNBytes(body, 0, body.length);
+                return HttpRequest.BodyPublishers.ofByteArray(body, 0, length);
+            } catch (IOException e) {
+                throw new ArchuraFilterException(HttpStatus.BAD_REQUEST.value(), "Error while reading request body", e);
+            }
+        }
+        final HttpRequest.BodyPublisher bodyPublisher = HttpRequest.BodyPublishers.ofInputStream(() -> {
+            try {
+                return httpServletRequest.getInputStream();
+            } catch (IOException e) {
+                throw new ArchuraFilterException(HttpStatus.BAD_REQUEST.value(), "Error while reading request body", e);
+            }
+        });
+        return contentLength >= 0 ? HttpRequest.BodyPublishers.fromPublisher(bodyPublisher, contentLength) : bodyPublisher;
+    }
+
     private void writeToHttpServletResponse(
+            final RequestContext requestContext,
             final HttpServletResponse httpServletResponse,
-            final HttpResponse<InputStream> httpResponse
+            final int status,
+            final HttpHeaders headers,
+            final InputStream responseBody
     ) throws IOException {
-        try (InputStream responseInputStream = httpResponse.body()) {
-            byte[] buf = new byte[8192];
-            int length;
-            while ((length = responseInputStream.read(buf)) != -1) {
-                httpServletResponse.getOutputStream().write(buf, 0, length);
+        final Optional<ResponseCapture> responseCapture = captureResponse(requestContext, httpServletResponse, status, headers);
+        final ServletOutputStream outputStream = httpServletResponse.getOutputStream();
+        try {
+            try (InputStream responseInputStream = responseBody) {
+                bufferPool.copy(responseInputStream, responseCapture.map(capture -> capture.tee(outputStream)).orElse(outputStream));
             }
+            outputStream.flush();
+            responseCapture.ifPresent(responseCache::put);
+        } finally {
+            responseCapture.ifPresent(ResponseCapture::abandon);
+        }
+    }
+
+    /**
+     * Starts capturing the response body for the response cache, if the caching filter marked the request and the response is cacheable.
+     */
+    private Optional<ResponseCapture> captureResponse(
+            final RequestContext requestContext,
+            final HttpServletResponse httpServletResponse,
+            final int status,
+            final HttpHeaders headers
+    ) {
+        if (isNull(requestContext.getCacheRequest())) {
+            return Optional.empty();
+        }
+        return responseCache.capture(requestContext.getCacheRequest(), status, headers, httpServletResponse);
+    }
+
+    /**
+     * Runs the given action when the asynchronous request is completed, i.e. to release resources held by the request.
+     */
+    @RequiredArgsConstructor
+    private static class CompletionAsyncListener implements AsyncListener {
+
+        private final Runnable onComplete;
+
+        @Override
+        public void onComplete(final AsyncEvent event) {
+            onComplete.run();
+        }
+
+        @Override
+        public void onTimeout(final AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(final AsyncEvent event) {
+            log.error("Error occurred while handling asynchronous request", event.getThrowable());
+        }
+
+        @Override
+        public void onStartAsync(final AsyncEvent event) {
+        }
+    }
+
+    /**
+     * Cancels the pending downstream work and completes the asynchronous request when it times out.
+     * Callbacks that touch the request claim it first, the request is timed out only while no callback holds the claim,
+     * and callbacks that claim it after the timeout leave the request alone, since it may already belong to another request.
+     */
+    private static class TimeoutAsyncListener implements AsyncListener {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final long idleTimeout;
+        private boolean timedOut;
+        private Runnable cancelAction = () -> {
+        };
+
+        private TimeoutAsyncListener(final long idleTimeout) {
+            this.idleTimeout = idleTimeout;
+        }
+
+        /**
+         * Idle timeout of the streamed response body in milliseconds.
+         */
+        long getIdleTimeout() {
+            return idleTimeout;
+        }
+
+        void setCancelAction(final Runnable cancelAction) {
+            lock.lock();
+            try {
+                this.cancelAction = cancelAction;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Claims the request for the caller, returns false if the request timed out.
+         * The caller must {@link #release()} the claim when it returns true.
+         */
+        boolean claim() {
+            lock.lock();
+            if (timedOut) {
+                lock.unlock();
+                return false;
+            }
+            return true;
+        }
+
+        void release() {
+            lock.unlock();
+        }
+
+        @Override
+        public void onTimeout(final AsyncEvent event) {
+            lock.lock();
+            try {
+                if (timedOut) {
+                    return;
+                }
+                timedOut = true;
+                log.error("Asynchronous request timed out");
+                cancelAction.run();
+                if (event.getSuppliedResponse() instanceof HttpServletResponse httpServletResponse && !httpServletResponse.isCommitted()) {
+                    httpServletResponse.setStatus(HttpStatus.GATEWAY_TIMEOUT.value());
+                }
+                event.getAsyncContext().complete();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void onComplete(final AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(final AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(final AsyncEvent event) {
         }
-        httpServletResponse.getOutputStream().flush();
     }
 
     @Override
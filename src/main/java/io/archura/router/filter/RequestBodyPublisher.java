@@ -0,0 +1,136 @@
+package io.archura.router.filter;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.Flow;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Publishes the request body to the downstream request with servlet non-blocking reads.
+ * The body is read only as much as the downstream request demands,
+ * reading stops when the demand is met and continues when more is requested or more data arrives.
+ */
+@Slf4j
+class RequestBodyPublisher implements Flow.Publisher<ByteBuffer>, Flow.Subscription, ReadListener {
+
+    private final ServletInputStream inputStream;
+    private final int bufferSize;
+    private final ReentrantLock lock = new ReentrantLock();
+    private Flow.Subscriber<? super ByteBuffer> subscriber;
+    private long demand;
+    private boolean finished;
+
+    /**
+     * Must be created after the request is put into asynchronous mode.
+     */
+    RequestBodyPublisher(final ServletInputStream inputStream, final int bufferSize) {
+        this.inputStream = inputStream;
+        this.bufferSize = bufferSize;
+        this.inputStream.setReadListener(this);
+    }
+
+    @Override
+    public void subscribe(final Flow.Subscriber<? super ByteBuffer> subscriber) {
+        lock.lock();
+        try {
+            if (nonNull(this.subscriber)) {
+                subscriber.onError(new IllegalStateException("Request body can only be published once"));
+                return;
+            }
+            this.subscriber = subscriber;
+        } finally {
+            lock.unlock();
+        }
+        subscriber.onSubscribe(this);
+    }
+
+    @Override
+    public void request(final long n) {
+        if (n <= 0) {
+            fail(new IllegalArgumentException("Requested items must be positive, requested: " + n));
+            return;
+        }
+        lock.lock();
+        try {
+            demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+        } finally {
+            lock.unlock();
+        }
+        drain();
+    }
+
+    @Override
+    public void cancel() {
+        lock.lock();
+        try {
+            finished = true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void onDataAvailable() {
+        drain();
+    }
+
+    @Override
+    public void onAllDataRead() {
+        drain();
+    }
+
+    @Override
+    public void onError(final Throwable throwable) {
+        log.debug("Error occurred while reading request body", throwable);
+        fail(throwable);
+    }
+
+    private void drain() {
+        lock.lock();
+        try {
+            if (isNull(subscriber)) {
+                return;
+            }
+            // buffers are handed over to the downstream request, they can not be reused
+            while (!finished && demand > 0 && inputStream.isReady()) {
+                final byte[] buffer = new byte[bufferSize];
+                final int length = inputStream.read(buffer);
+                if (length == -1) {
+                    break;
+                }
+                if (length > 0) {
+                    demand--;
+                    subscriber.onNext(ByteBuffer.wrap(buffer, 0, length));
+                }
+            }
+            if (!finished && inputStream.isFinished()) {
+                finished = true;
+                subscriber.onComplete();
+            }
+        } catch (IOException e) {
+            fail(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void fail(final Throwable throwable) {
+        lock.lock();
+        try {
+            if (!finished && nonNull(subscriber)) {
+                finished = true;
+                subscriber.onError(throwable);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+}
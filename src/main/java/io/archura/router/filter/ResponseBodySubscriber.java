@@ -0,0 +1,208 @@
+package io.archura.router.filter;
+
+import io.archura.router.buffer.BufferPool;
+import io.archura.router.cache.ResponseCache;
+import io.archura.router.cache.ResponseCapture;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Writes the downstream response body to the client with servlet non-blocking writes and completes the request.
+ * The next part of the body is requested from the downstream response only after the previous part is written,
+ * so a slow client slows down the downstream response instead of filling the memory.
+ * When a response capture is given, the written body is copied into it and stored in the response cache once the body is complete.
+ * The body fails when no part of it is received from the downstream response or written to the client for the idle timeout,
+ * so a stalled downstream server or client does not hold the connection forever.
+ */
+@Slf4j
+class ResponseBodySubscriber implements Flow.Subscriber<List<ByteBuffer>>, WriteListener {
+
+    private final AsyncContext asyncContext;
+    private final ServletOutputStream outputStream;
+    private final BufferPool bufferPool;
+    private final ResponseCapture responseCapture;
+    private final ResponseCache responseCache;
+    private final long idleTimeoutNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Deque<ByteBuffer> pending = new ArrayDeque<>();
+    private Flow.Subscription subscription;
+    private boolean requested;
+    private boolean completed;
+    private boolean finished;
+    private long lastProgress;
+
+    ResponseBodySubscriber(
+            final AsyncContext asyncContext,
+            final ServletOutputStream outputStream,
+            final BufferPool bufferPool,
+            final ResponseCapture responseCapture,
+            final ResponseCache responseCache,
+            final long idleTimeout
+    ) {
+        this.asyncContext = asyncContext;
+        this.outputStream = outputStream;
+        this.bufferPool = bufferPool;
+        this.responseCapture = responseCapture;
+        this.responseCache = responseCache;
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeout);
+    }
+
+    @Override
+    public void onSubscribe(final Flow.Subscription subscription) {
+        this.subscription = subscription;
+        lastProgress = System.nanoTime();
+        if (idleTimeoutNanos > 0) {
+            scheduleIdleCheck(idleTimeoutNanos);
+        }
+        // container calls onWritePossible when the response can be written
+        outputStream.setWriteListener(this);
+    }
+
+    @Override
+    public void onNext(final List<ByteBuffer> buffers) {
+        lock.lock();
+        try {
+            requested = false;
+            lastProgress = System.nanoTime();
+            pending.addAll(buffers);
+        } finally {
+            lock.unlock();
+        }
+        drain();
+    }
+
+    /**
+     * Called by the downstream response when it fails, or by the container when the client connection fails.
+     */
+    @Override
+    public void onError(final Throwable throwable) {
+        log.error("Error occurred while proxying response body", throwable);
+        subscription.cancel();
+        finish();
+    }
+
+    @Override
+    public void onComplete() {
+        lock.lock();
+        try {
+            completed = true;
+        } finally {
+            lock.unlock();
+        }
+        drain();
+    }
+
+    @Override
+    public void onWritePossible() {
+        drain();
+    }
+
+    private void drain() {
+        lock.lock();
+        try {
+            while (!finished && outputStream.isReady()) {
+                final ByteBuffer buffer = pending.peek();
+                if (isNull(buffer)) {
+                    if (completed) {
+                        if (nonNull(responseCapture)) {
+                            responseCache.put(responseCapture);
+                        }
+                        finish();
+                    } else if (!requested) {
+                        requested = true;
+                        subscription.request(1);
+                    }
+                    return;
+                }
+                write(buffer);
+                lastProgress = System.nanoTime();
+                if (!buffer.hasRemaining()) {
+                    pending.poll();
+                }
+            }
+        } catch (IOException e) {
+            log.debug("Error occurred while writing response body to client", e);
+            subscription.cancel();
+            finish();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void write(final ByteBuffer buffer) throws IOException {
+        if (buffer.hasArray()) {
+            outputStream.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+            if (nonNull(responseCapture)) {
+                responseCapture.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+            }
+            buffer.position(buffer.limit());
+        } else {
+            final byte[] bytes = bufferPool.acquire();
+            try {
+                final int length = Math.min(bytes.length, buffer.remaining());
+                buffer.get(bytes, 0, length);
+                outputStream.write(bytes, 0, length);
+                if (nonNull(responseCapture)) {
+                    responseCapture.write(bytes, 0, length);
+                }
+            } finally {
+                bufferPool.release(bytes);
+            }
+        }
+    }
+
+    private void scheduleIdleCheck(final long delayNanos) {
+        CompletableFuture.runAsync(this::checkIdle, CompletableFuture.delayedExecutor(delayNanos, TimeUnit.NANOSECONDS));
+    }
+
+    private void checkIdle() {
+        lock.lock();
+        try {
+            if (finished) {
+                return;
+            }
+            final long idle = System.nanoTime() - lastProgress;
+            if (idle < idleTimeoutNanos) {
+                scheduleIdleCheck(idleTimeoutNanos - idle);
+                return;
+            }
+            log.error("Response body was idle for %d ms, closing the response".formatted(TimeUnit.NANOSECONDS.toMillis(idle)));
+            subscription.cancel();
+            finish();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void finish() {
+        lock.lock();
+        try {
+            if (!finished) {
+                finished = true;
+                pending.clear();
+                if (nonNull(responseCapture)) {
+                    responseCapture.abandon();
+                }
+                asyncContext.complete();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+}
@@ -1,6 +1,7 @@
 package io.archura.router.filter.internal;
 
 import io.archura.router.config.GlobalConfiguration;
+import io.archura.router.context.RequestContext;
 import io.archura.router.filter.ArchuraFilter;
 import io.archura.router.filter.exception.ArchuraFilterException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -16,6 +17,7 @@ public class AuditingFilter implements ArchuraFilter {
     @Override
     public void doFilter(
             final GlobalConfiguration.FilterConfiguration configuration,
+            final RequestContext requestContext,
             final HttpServletRequest httpServletRequest,
             final HttpServletResponse httpServletResponse
     ) throws ArchuraFilterException {
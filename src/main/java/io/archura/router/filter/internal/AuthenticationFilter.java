@@ -1,6 +1,7 @@
 package io.archura.router.filter.internal;
 
 import io.archura.router.config.GlobalConfiguration;
+import io.archura.router.context.RequestContext;
 import io.archura.router.filter.ArchuraFilter;
 import io.archura.router.filter.exception.ArchuraFilterException;
 import io.jsonwebtoken.Claims;
@@ -22,8 +23,6 @@ import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import static io.archura.router.filter.ArchuraKeys.ARCHURA_CURRENT_DOMAIN;
-import static io.archura.router.filter.ArchuraKeys.ARCHURA_CURRENT_ROUTE;
 import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 
@@ -37,35 +36,33 @@ public class AuthenticationFilter implements ArchuraFilter {
     @Override
     public void doFilter(
             final GlobalConfiguration.FilterConfiguration configuration,
+            final RequestContext requestContext,
             final HttpServletRequest httpServletRequest,
             final HttpServletResponse httpServletResponse
     ) throws ArchuraFilterException {
         log.debug("↓ AuthenticationFilter started");
-        if (isNull(httpServletRequest.getAttribute(ARCHURA_CURRENT_DOMAIN))
-                || httpServletRequest.getAttribute(ARCHURA_CURRENT_DOMAIN) instanceof GlobalConfiguration.DomainConfiguration) {
+        if (isNull(requestContext.getDomain())) {
             throw new ArchuraFilterException(HttpStatus.NOT_FOUND.value(), "No domain configuration found for request.");
         }
-        if (isNull(httpServletRequest.getAttribute(ARCHURA_CURRENT_ROUTE))
-                || httpServletRequest.getAttribute(ARCHURA_CURRENT_ROUTE) instanceof GlobalConfiguration.RouteConfiguration) {
+        if (isNull(requestContext.getRoute())) {
             throw new ArchuraFilterException(HttpStatus.NOT_FOUND.value(), "No route configuration found for request.");
         }
         if (!(configuration instanceof final GlobalConfiguration.AuthenticationFilterConfiguration authenticationFilterConfiguration)) {
             throw new ArchuraFilterException(HttpStatus.INTERNAL_SERVER_ERROR.value(), "Provided configuration is not a AuthenticationFilterConfiguration object.");
         }
         if (!authenticationFilterConfiguration.getRoutes().isEmpty()) {
-            authenticateRequest(authenticationFilterConfiguration, httpServletRequest);
+            authenticateRequest(authenticationFilterConfiguration, requestContext, httpServletRequest);
         }
         log.debug("↑ AuthenticationFilter finished");
     }
 
     private void authenticateRequest(
             final GlobalConfiguration.AuthenticationFilterConfiguration configuration,
+            final RequestContext requestContext,
             final HttpServletRequest httpServletRequest
     ) {
-        final GlobalConfiguration.DomainConfiguration domainConfiguration =
-                (GlobalConfiguration.DomainConfiguration) httpServletRequest.getAttribute(ARCHURA_CURRENT_DOMAIN);
-        final GlobalConfiguration.RouteConfiguration currentRoute =
-                (GlobalConfiguration.RouteConfiguration) httpServletRequest.getAttribute(ARCHURA_CURRENT_ROUTE);
+        final GlobalConfiguration.DomainConfiguration domainConfiguration = requestContext.getDomain();
+        final GlobalConfiguration.RouteConfiguration currentRoute = requestContext.getRoute();
 
         if (configuration.isJwt()) {
             validateJWT(
@@ -184,11 +181,8 @@ public class AuthenticationFilter implements ArchuraFilter {
             final GlobalConfiguration.PatternHolder patternHolder,
             final String regex
     ) {
-        if (isNull(patternHolder.getPattern())) {
-            final Pattern pattern = Pattern.compile(regex);
-            patternHolder.setPattern(pattern);
-        }
-        return patternHolder.getPattern();
+        final Pattern pattern = patternHolder.getPattern();
+        return isNull(pattern) ? Pattern.compile(regex) : pattern;
     }
 
 }
@@ -1,6 +1,7 @@
 package io.archura.router.filter.internal;
 
 import io.archura.router.config.GlobalConfiguration;
+import io.archura.router.context.RequestContext;
 import io.archura.router.filter.ArchuraFilter;
 import io.archura.router.filter.exception.ArchuraFilterException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -10,11 +11,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 
-import java.util.Collections;
 import java.util.List;
 
-import static io.archura.router.filter.ArchuraKeys.ARCHURA_CURRENT_CLIENT_IP;
-import static io.archura.router.filter.ArchuraKeys.ARCHURA_CURRENT_DOMAIN;
 import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 
@@ -40,6 +38,7 @@ public class BlackListFilter implements ArchuraFilter {
     @Override
     public void doFilter(
             final GlobalConfiguration.FilterConfiguration configuration,
+            final RequestContext requestContext,
             final HttpServletRequest httpServletRequest,
             final HttpServletResponse httpServletResponse
     ) throws ArchuraFilterException {
@@ -50,18 +49,18 @@ public class BlackListFilter implements ArchuraFilter {
         // extract client ip from request and check if it is blacklisted
         final List<String> blackListedIps = blackListFilterConfiguration.getIps();
         if (!blackListedIps.isEmpty()) {
-            final String clientIp = getClientIp(httpServletRequest);
+            final String clientIp = getClientIp(requestContext, httpServletRequest);
             if (blackListedIps.contains(clientIp)) {
                 log.debug("\tClient IP '{}' is blacklisted.", clientIp);
                 throw new ArchuraFilterException(HttpStatus.FORBIDDEN.value(), "Client IP is blacklisted.");
             }
         }
-        final Object domainConfigObject = httpServletRequest.getAttribute(ARCHURA_CURRENT_DOMAIN);
-        if (nonNull(domainConfigObject) && domainConfigObject instanceof GlobalConfiguration.DomainConfiguration domainConfiguration) {
+        final GlobalConfiguration.DomainConfiguration domainConfiguration = requestContext.getDomain();
+        if (nonNull(domainConfiguration)) {
             final String domain = domainConfiguration.getName();
             final List<String> blackListedDomains = blackListFilterConfiguration.getDomainIps().get(domain);
             if (nonNull(blackListedDomains) && !blackListedDomains.isEmpty()) {
-                final String clientIp = getClientIp(httpServletRequest);
+                final String clientIp = getClientIp(requestContext, httpServletRequest);
                 if (blackListedDomains.contains(clientIp)) {
                     log.debug("\tClient IP '{}' is blacklisted for domain '{}'.", clientIp, domain);
                     throw new ArchuraFilterException(HttpStatus.FORBIDDEN.value(), "Client IP is blacklisted for domain.");
@@ -71,20 +70,23 @@ public class BlackListFilter implements ArchuraFilter {
         log.debug("↑ BlackListFilter finished");
     }
 
-    private String getClientIp(final HttpServletRequest httpServletRequest) {
-        final Object requestIp = httpServletRequest.getAttribute(ARCHURA_CURRENT_CLIENT_IP);
-        if (isNull(requestIp)) {
-            final String clientIp = Collections.list(httpServletRequest.getHeaderNames())
-                    .stream()
-                    .filter(CLIENT_IP_HEADERS::contains)
-                    .map(httpServletRequest::getHeader)
-                    .filter(this::isValid)
-                    .findFirst()
-                    .map(ip -> ip.split(",")[0].trim())
-                    .orElse(httpServletRequest.getRemoteAddr());
-            httpServletRequest.setAttribute(ARCHURA_CURRENT_CLIENT_IP, clientIp);
+    private String getClientIp(
+            final RequestContext requestContext,
+            final HttpServletRequest httpServletRequest
+    ) {
+        if (isNull(requestContext.getClientIp())) {
+            // header names are case-insensitive, the first valid header in the order of CLIENT_IP_HEADERS is used
+            String clientIp = httpServletRequest.getRemoteAddr();
+            for (String headerName : CLIENT_IP_HEADERS) {
+                final String headerValue = httpServletRequest.getHeader(headerName);
+                if (isValid(headerValue)) {
+                    clientIp = headerValue.split(",")[0].trim();
+                    break;
+                }
+            }
+            requestContext.setClientIp(clientIp);
         }
-        return String.valueOf(httpServletRequest.getAttribute(ARCHURA_CURRENT_CLIENT_IP));
+        return requestContext.getClientIp();
     }
 
     private boolean isValid(final String ipValue) {
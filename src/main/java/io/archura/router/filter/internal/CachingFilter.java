@@ -1,24 +1,176 @@
 package io.archura.router.filter.internal;
 
+import io.archura.router.buffer.BufferPool;
+import io.archura.router.cache.CacheRequest;
+import io.archura.router.cache.CachedResponse;
+import io.archura.router.cache.ResponseCache;
 import io.archura.router.config.GlobalConfiguration;
+import io.archura.router.context.RequestContext;
 import io.archura.router.filter.ArchuraFilter;
 import io.archura.router.filter.exception.ArchuraFilterException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.util.Optional;
+
+import static java.util.Objects.nonNull;
+
+/**
+ * Answers GET and HEAD requests from the shared {@link ResponseCache}, before the downstream request is built.
+ * On a miss, the request is marked in the {@link RequestContext} so its response is stored while it is written to the client.
+ * HEAD requests are answered from cached GET responses, but never store responses themselves.
+ */
 @Slf4j
 @RequiredArgsConstructor
 @Component
 public class CachingFilter implements ArchuraFilter {
+
+    private static final String HEADER_NAME_CACHE_CONTROL = "Cache-Control";
+    private static final String HEADER_NAME_PRAGMA = "Pragma";
+    private static final String HEADER_NAME_AUTHORIZATION = "Authorization";
+    private static final String HEADER_NAME_AGE = "Age";
+
+    private final ResponseCache responseCache;
+    private final BufferPool bufferPool;
+
     @Override
     public void doFilter(
             final GlobalConfiguration.FilterConfiguration configuration,
+            final RequestContext requestContext,
             final HttpServletRequest httpServletRequest,
             final HttpServletResponse httpServletResponse
     ) throws ArchuraFilterException {
-        log.debug("CachingFilter");
+        log.debug("↓ CachingFilter started");
+        if (!(configuration instanceof final GlobalConfiguration.CachingFilterConfiguration cachingFilterConfiguration)) {
+            throw new ArchuraFilterException(HttpStatus.INTERNAL_SERVER_ERROR.value(), "Provided configuration is not a CachingFilterConfiguration object.");
+        }
+        final String method = httpServletRequest.getMethod();
+        final boolean get = "GET".equals(method);
+        if (responseCache.isEnabled() && (get || "HEAD".equals(method)) && !hasDirective(httpServletRequest, "no-store")) {
+            final String key = createKey(cachingFilterConfiguration, requestContext, httpServletRequest);
+            // 'no-cache' requests skip the cached response, but their response is still stored
+            if (!hasDirective(httpServletRequest, "no-cache")) {
+                final Optional<CachedResponse> cachedResponse = responseCache.get(key);
+                if (cachedResponse.isPresent()) {
+                    writeCachedResponse(httpServletRequest, httpServletResponse, cachedResponse.get());
+                    log.debug("\tresponse served from cache");
+                    log.debug("↑ CachingFilter finished");
+                    return;
+                }
+            }
+            if (get) {
+                requestContext.setCacheRequest(new CacheRequest(
+                        key,
+                        getTimeToLive(cachingFilterConfiguration, requestContext),
+                        cachingFilterConfiguration.getKeyHeaders(),
+                        nonNull(httpServletRequest.getHeader(HEADER_NAME_AUTHORIZATION))
+                ));
+            }
+        }
+        log.debug("↑ CachingFilter finished");
+    }
+
+    /**
+     * Creates the cache key from the domain, the tenant, the matched route, the URI, the query string and the configured request headers.
+     * The route is part of the key when the caching filter runs after the route matching, so routes matching the same URI do not share responses.
+     */
+    private String createKey(
+            final GlobalConfiguration.CachingFilterConfiguration configuration,
+            final RequestContext requestContext,
+            final HttpServletRequest httpServletRequest
+    ) {
+        final StringBuilder key = new StringBuilder(128);
+        if (nonNull(requestContext.getDomain())) {
+            key.append(requestContext.getDomain().getName());
+        }
+        key.append('\n');
+        if (configuration.isKeyTenant() && nonNull(requestContext.getTenant())) {
+            key.append(requestContext.getTenant().getName());
+        }
+        key.append('\n');
+        if (nonNull(requestContext.getRoute())) {
+            key.append(requestContext.getRoute().getName());
+        }
+        key.append('\n').append(httpServletRequest.getRequestURI());
+        if (configuration.isKeyQuery() && nonNull(httpServletRequest.getQueryString())) {
+            key.append('?').append(httpServletRequest.getQueryString());
+        }
+        if (nonNull(configuration.getKeyHeaders())) {
+            for (String headerName : configuration.getKeyHeaders()) {
+                final String headerValue = httpServletRequest.getHeader(headerName);
+                key.append('\n').append(headerName.toLowerCase()).append(':');
+                if (nonNull(headerValue)) {
+                    key.append(headerValue);
+                }
+            }
+        }
+        return key.toString();
+    }
+
+    private long getTimeToLive(
+            final GlobalConfiguration.CachingFilterConfiguration configuration,
+            final RequestContext requestContext
+    ) {
+        final GlobalConfiguration.RouteConfiguration routeConfiguration = requestContext.getRoute();
+        if (nonNull(routeConfiguration) && nonNull(configuration.getRouteTtls())) {
+            final Long routeTtl = configuration.getRouteTtls().get(routeConfiguration.getName());
+            if (nonNull(routeTtl)) {
+                return routeTtl;
+            }
+        }
+        return configuration.getTtl();
     }
+
+    private boolean hasDirective(final HttpServletRequest httpServletRequest, final String directive) {
+        final String cacheControl = httpServletRequest.getHeader(HEADER_NAME_CACHE_CONTROL);
+        if (nonNull(cacheControl) && cacheControl.toLowerCase().contains(directive)) {
+            return true;
+        }
+        final String pragma = httpServletRequest.getHeader(HEADER_NAME_PRAGMA);
+        return "no-cache".equals(directive) && nonNull(pragma) && pragma.toLowerCase().contains(directive);
+    }
+
+    private void writeCachedResponse(
+            final HttpServletRequest httpServletRequest,
+            final HttpServletResponse httpServletResponse,
+            final CachedResponse cachedResponse
+    ) {
+        httpServletResponse.setStatus(cachedResponse.getStatus());
+        if (nonNull(cachedResponse.getContentType())) {
+            httpServletResponse.setContentType(cachedResponse.getContentType());
+        }
+        for (int i = 0; i < cachedResponse.getHeaderCount(); i++) {
+            httpServletResponse.addHeader(cachedResponse.getHeaderName(i), cachedResponse.getHeaderValue(i));
+        }
+        final long age = Math.max(0, (System.currentTimeMillis() - cachedResponse.getStoredAt()) / 1000);
+        httpServletResponse.setHeader(HEADER_NAME_AGE, String.valueOf(age));
+        httpServletResponse.setContentLength(cachedResponse.getBodyLength());
+        try {
+            if (!"HEAD".equals(httpServletRequest.getMethod())) {
+                writeBody(httpServletResponse, cachedResponse);
+            }
+            // commit the response so the remaining filters and the downstream request are skipped
+            httpServletResponse.flushBuffer();
+        } catch (IOException e) {
+            throw new ArchuraFilterException(HttpStatus.INTERNAL_SERVER_ERROR.value(), "Error while writing cached response", e);
+        }
+    }
+
+    /**
+     * Writes the cached body, a body from the disk cache is transferred from the mapped file through a pooled buffer.
+     */
+    private void writeBody(final HttpServletResponse httpServletResponse, final CachedResponse cachedResponse) throws IOException {
+        final byte[] buffer = bufferPool.acquire();
+        try {
+            cachedResponse.writeBody(httpServletResponse.getOutputStream(), buffer);
+        } finally {
+            bufferPool.release(buffer);
+        }
+    }
+
 }
@@ -1,8 +1,13 @@
 package io.archura.router.filter.internal;
 
 import io.archura.router.config.GlobalConfiguration;
+import io.archura.router.context.RequestContext;
 import io.archura.router.filter.ArchuraFilter;
 import io.archura.router.filter.exception.ArchuraFilterException;
+import io.archura.router.routing.RouteIndex;
+import io.archura.router.routing.RouteMatchCache;
+import io.archura.router.template.RequestVariableResolver;
+import io.archura.router.template.Template;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
@@ -11,21 +16,14 @@ import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.TreeMap;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import static io.archura.router.filter.ArchuraKeys.ARCHURA_CURRENT_DOMAIN;
-import static io.archura.router.filter.ArchuraKeys.ARCHURA_CURRENT_ROUTE;
-import static io.archura.router.filter.ArchuraKeys.ARCHURA_CURRENT_TENANT;
 import static io.archura.router.filter.ArchuraKeys.ARCHURA_ROUTE_NOT_FOUND_URL;
-import static io.archura.router.filter.ArchuraKeys.ARCHURA_REQUEST_HEADERS;
 import static io.archura.router.filter.ArchuraKeys.DEFAULT_HTTP_METHOD;
-import static io.archura.router.filter.ArchuraKeys.RESTRICTED_HEADER_NAMES;
 import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 
@@ -33,18 +31,18 @@ import static java.util.Objects.nonNull;
 @RequiredArgsConstructor
 @Component
 public class RouteMatchingFilter implements ArchuraFilter {
+
+    private final RouteMatchCache routeMatchCache;
+
     @Override
     public void doFilter(
             final GlobalConfiguration.FilterConfiguration configuration,
+            final RequestContext requestContext,
             final HttpServletRequest httpServletRequest,
             final HttpServletResponse httpServletResponse
     ) throws ArchuraFilterException {
         log.debug("↓ RouteMatchingFilter started");
-        final GlobalConfiguration.DomainConfiguration domainConfiguration =
-                (GlobalConfiguration.DomainConfiguration) httpServletRequest.getAttribute(ARCHURA_CURRENT_DOMAIN);
-        final GlobalConfiguration.TenantConfiguration tenantConfiguration =
-                (GlobalConfiguration.TenantConfiguration) httpServletRequest.getAttribute(ARCHURA_CURRENT_TENANT);
-        if (isNull(domainConfiguration) || isNull(tenantConfiguration)) {
+        if (isNull(requestContext.getDomain()) || isNull(requestContext.getTenant())) {
             throw new ArchuraFilterException(HttpStatus.NOT_FOUND.value(), "No domain or tenant configuration found for request.");
         }
         if (!(configuration instanceof final GlobalConfiguration.RouteMatchingFilterConfiguration routeMatchingFilterConfiguration)) {
@@ -52,40 +50,32 @@ public class RouteMatchingFilter implements ArchuraFilter {
         }
         // find current route
         final GlobalConfiguration.RouteConfiguration currentRoute =
-                findCurrentRoute(httpServletRequest, routeMatchingFilterConfiguration);
-        httpServletRequest.setAttribute(ARCHURA_CURRENT_ROUTE, currentRoute);
+                findCurrentRoute(requestContext, httpServletRequest, routeMatchingFilterConfiguration);
+        requestContext.setRoute(currentRoute);
         log.debug("\tcurrent route set to: '{}'", currentRoute.getName());
         log.debug("↑ RouteMatchingFilter finished");
     }
 
     private GlobalConfiguration.RouteConfiguration findCurrentRoute(
+            final RequestContext requestContext,
             final HttpServletRequest httpServletRequest,
             final GlobalConfiguration.RouteMatchingFilterConfiguration configuration
     ) {
-        final String method = httpServletRequest.getMethod();
-
-        // check for HTTP Method specific tenant routes
-        final List<GlobalConfiguration.RouteConfiguration> tenantRouteConfigurations = configuration.getMethodRoutes().get(method);
-        if (nonNull(tenantRouteConfigurations)) {
-            final Optional<GlobalConfiguration.RouteConfiguration> tenantRouteConfiguration = findMatchingRoute(httpServletRequest, tenantRouteConfigurations);
-            if (tenantRouteConfiguration.isPresent()) {
-                return tenantRouteConfiguration.get();
-            }
-        }
-
-        // check for catch all routes (wildcard) for HTTP Method '*'
-        final List<GlobalConfiguration.RouteConfiguration> tenantCatchAllRoutes = configuration.getMethodRoutes().get("*");
-        if (nonNull(tenantCatchAllRoutes)) {
-            final Optional<GlobalConfiguration.RouteConfiguration> tenantCatchAllRouteConfiguration = findMatchingRoute(httpServletRequest, tenantCatchAllRoutes);
-            if (tenantCatchAllRouteConfiguration.isPresent()) {
-                return tenantCatchAllRouteConfiguration.get();
-            }
+        final Map<String, String> requestHeaders = requestContext.getHeaders();
+        final Optional<GlobalConfiguration.RouteConfiguration> matchedRoute = routeMatchCache.find(
+                configuration,
+                httpServletRequest,
+                requestHeaders,
+                () -> findMatchingRoute(httpServletRequest, requestHeaders, configuration)
+        );
+        if (matchedRoute.isPresent()) {
+            return applyRouteConfiguration(requestContext, matchedRoute.get());
         }
 
         // check if there is already a route set previously
-        final Object currentRoute = httpServletRequest.getAttribute(ARCHURA_CURRENT_ROUTE);
-        if (nonNull(currentRoute) && currentRoute instanceof GlobalConfiguration.RouteConfiguration routeConfiguration) {
-            return routeConfiguration;
+        final GlobalConfiguration.RouteConfiguration currentRoute = requestContext.getRoute();
+        if (nonNull(currentRoute)) {
+            return currentRoute;
         } else {
             // return not found route
             return getNotFoundRouteConfiguration(httpServletRequest, configuration);
@@ -94,160 +84,101 @@ public class RouteMatchingFilter implements ArchuraFilter {
 
     private Optional<GlobalConfiguration.RouteConfiguration> findMatchingRoute(
             final HttpServletRequest httpServletRequest,
-            final List<GlobalConfiguration.RouteConfiguration> routeConfigurations
+            final Map<String, String> requestHeaders,
+            final GlobalConfiguration.RouteMatchingFilterConfiguration configuration
     ) {
+        final String method = httpServletRequest.getMethod();
         final String uri = httpServletRequest.getRequestURI();
-        final Map<String, String> requestHeaders = getRequestHeaders(httpServletRequest);
-        final Map<String, String> templateVariables = new TreeMap<>();
-        for (GlobalConfiguration.RouteConfiguration routeConfiguration : routeConfigurations) {
-            final Optional<GlobalConfiguration.RouteConfiguration> matched = matchRouteConfiguration(httpServletRequest, uri, requestHeaders, templateVariables, routeConfiguration);
-            if (matched.isPresent()) {
-                final GlobalConfiguration.RouteConfiguration matchedRouteConfiguration = matched.get();
-                final GlobalConfiguration.MapConfiguration mapConfiguration = matchedRouteConfiguration.getMapConfiguration();
-                final GlobalConfiguration.MapConfiguration appliedMapConfiguration = applyTemplateVariables(httpServletRequest, mapConfiguration, templateVariables);
-                final GlobalConfiguration.RouteConfiguration appliedRouteConfiguration = matchedRouteConfiguration.toBuilder()
-                        .mapConfiguration(appliedMapConfiguration)
-                        .variables(templateVariables)
-                        .build();
-                return Optional.of(appliedRouteConfiguration);
+
+        // check for HTTP Method specific tenant routes
+        final List<GlobalConfiguration.RouteConfiguration> tenantRouteConfigurations = findCandidateRoutes(configuration, method, uri);
+        if (nonNull(tenantRouteConfigurations)) {
+            final Optional<GlobalConfiguration.RouteConfiguration> tenantRouteConfiguration = findMatchingRoute(httpServletRequest, uri, requestHeaders, tenantRouteConfigurations);
+            if (tenantRouteConfiguration.isPresent()) {
+                return tenantRouteConfiguration;
             }
         }
-        return Optional.empty();
-    }
 
-    private GlobalConfiguration.MapConfiguration applyTemplateVariables(
-            final HttpServletRequest httpServletRequest,
-            final GlobalConfiguration.MapConfiguration mapConfiguration,
-            final Map<String, String> templateVariables
-    ) {
-        // replace template variables in url and headers
-        String url = mapConfiguration.getUrl();
-        final Map<String, String> mapHeaders = mapConfiguration.getHeaders();
-        for (Map.Entry<String, String> templateVariable : templateVariables.entrySet()) {
-            final String value = templateVariables.get(templateVariable.getKey());
-            if (nonNull(value)) {
-                final String variablePattern = "\\$\\{" + templateVariable.getKey() + "}";
-                url = url.replaceAll(variablePattern, value);
-                for (Map.Entry<String, String> entry : mapHeaders.entrySet()) {
-                    final String headerValue = mapHeaders.get(entry.getKey());
-                    mapHeaders.put(entry.getKey(), headerValue.replaceAll(variablePattern, value));
-                }
-            }
+        // check for catch all routes (wildcard) for HTTP Method '*'
+        final List<GlobalConfiguration.RouteConfiguration> tenantCatchAllRoutes = findCandidateRoutes(configuration, "*", uri);
+        if (nonNull(tenantCatchAllRoutes)) {
+            return findMatchingRoute(httpServletRequest, uri, requestHeaders, tenantCatchAllRoutes);
         }
-        // override request headers with map headers
-        final Map<String, String> requestHeaders = getRequestHeaders(httpServletRequest);
-        requestHeaders.putAll(mapHeaders);
-        // return new map configuration
-        final GlobalConfiguration.MapConfiguration appliedMapConfiguration = new GlobalConfiguration.MapConfiguration();
-        appliedMapConfiguration.setUrl(url);
-        appliedMapConfiguration.setHeaders(requestHeaders);
-        appliedMapConfiguration.setMethodMap(mapConfiguration.getMethodMap());
-        return appliedMapConfiguration;
+        return Optional.empty();
     }
 
-    private void addExtractVariables(
-            final HttpServletRequest httpServletRequest,
-            final Map<String, String> requestHeaders,
-            final Map<String, String> templateVariables,
-            final GlobalConfiguration.ExtractConfiguration extractConfiguration
+    private List<GlobalConfiguration.RouteConfiguration> findCandidateRoutes(
+            final GlobalConfiguration.RouteMatchingFilterConfiguration configuration,
+            final String method,
+            final String uri
     ) {
-        final List<GlobalConfiguration.PathConfiguration> pathConfigurations = extractConfiguration.getPathConfiguration();
-        for (GlobalConfiguration.PathConfiguration pathConfiguration : pathConfigurations) {
-            extractPathVariables(httpServletRequest, templateVariables, pathConfiguration);
-        }
-
-        final List<GlobalConfiguration.HeaderConfiguration> headerConfigurations = extractConfiguration.getHeaderConfiguration();
-        for (GlobalConfiguration.HeaderConfiguration headerConfig : headerConfigurations) {
-            extractHeaderVariables(requestHeaders, templateVariables, headerConfig);
-        }
-
-        final List<GlobalConfiguration.QueryConfiguration> queryConfigurations = extractConfiguration.getQueryConfiguration();
-        for (GlobalConfiguration.QueryConfiguration queryConfig : queryConfigurations) {
-            extractQueryVariables(httpServletRequest, templateVariables, queryConfig);
+        // narrow the routes down to the ones whose literal path prefix matches the uri
+        final RouteIndex routeIndex = configuration.getRouteIndexes().get(method);
+        if (nonNull(routeIndex)) {
+            return routeIndex.findCandidates(uri);
         }
+        return configuration.getMethodRoutes().get(method);
     }
 
-    private void extractPathVariables(
+    private Optional<GlobalConfiguration.RouteConfiguration> findMatchingRoute(
             final HttpServletRequest httpServletRequest,
-            final Map<String, String> templateVariables,
-            final GlobalConfiguration.PathConfiguration pathConfiguration
+            final String uri,
+            final Map<String, String> requestHeaders,
+            final List<GlobalConfiguration.RouteConfiguration> routeConfigurations
     ) {
-        if (nonNull(pathConfiguration)) {
-            final String input = httpServletRequest.getRequestURI();
-            final String regex = pathConfiguration.getRegex();
-            final List<String> captureGroups = pathConfiguration.getCaptureGroups();
-            final Pattern pattern = getPattern(pathConfiguration, regex);
-            final Matcher matcher = pattern.matcher(input);
-            if (matcher.matches()) {
-                if (isNull(captureGroups) || captureGroups.isEmpty()) {
-                    templateVariables.put("extract.path", matcher.group(0));
-                } else {
-                    for (String group : captureGroups) {
-                        templateVariables.put("extract.path." + group, matcher.group(group));
-                    }
-                }
+        for (GlobalConfiguration.RouteConfiguration routeConfiguration : routeConfigurations) {
+            if (isRouteMatch(httpServletRequest, uri, requestHeaders, routeConfiguration)) {
+                return Optional.of(routeConfiguration);
             }
         }
+        return Optional.empty();
     }
 
-    private void extractHeaderVariables(
-            final Map<String, String> requestHeaders,
-            final Map<String, String> templateVariables,
-            final GlobalConfiguration.HeaderConfiguration headerConfiguration
+    private GlobalConfiguration.RouteConfiguration applyRouteConfiguration(
+            final RequestContext requestContext,
+            final GlobalConfiguration.RouteConfiguration routeConfiguration
     ) {
-        if (nonNull(headerConfiguration) && requestHeaders.containsKey(headerConfiguration.getName())) {
-            final String input = requestHeaders.get(headerConfiguration.getName());
-            final String regex = headerConfiguration.getRegex();
-            final List<String> captureGroups = headerConfiguration.getCaptureGroups();
-            final Pattern pattern = getPattern(headerConfiguration, regex);
-            final Matcher matcher = pattern.matcher(input);
-            if (matcher.matches()) {
-                if (isNull(captureGroups) || captureGroups.isEmpty()) {
-                    templateVariables.put("extract.header." + headerConfiguration.getName(), matcher.group(0));
-                } else {
-                    for (String group : captureGroups) {
-                        templateVariables.put("extract.header." + group, matcher.group(group));
-                    }
-                }
-            }
-        }
+        // variables are resolved only when the templates ask for them
+        final RequestVariableResolver requestVariableResolver = new RequestVariableResolver(requestContext, routeConfiguration);
+        requestContext.setVariables(requestVariableResolver);
+        final GlobalConfiguration.MapConfiguration mapConfiguration = routeConfiguration.getMapConfiguration();
+        final GlobalConfiguration.MapConfiguration appliedMapConfiguration = applyTemplateVariables(mapConfiguration, requestVariableResolver);
+        return routeConfiguration.toBuilder()
+                .mapConfiguration(appliedMapConfiguration)
+                .build();
     }
 
-    private void extractQueryVariables(
-            final HttpServletRequest httpServletRequest,
-            final Map<String, String> templateVariables,
-            final GlobalConfiguration.QueryConfiguration queryConfiguration
+    private GlobalConfiguration.MapConfiguration applyTemplateVariables(
+            final GlobalConfiguration.MapConfiguration mapConfiguration,
+            final RequestVariableResolver requestVariableResolver
     ) {
-        if (nonNull(queryConfiguration) && httpServletRequest.getParameterMap().containsKey(queryConfiguration.getName())) {
-            final String input = httpServletRequest.getParameter(queryConfiguration.getName());
-            final String regex = queryConfiguration.getRegex();
-            final List<String> captureGroups = queryConfiguration.getCaptureGroups();
-            final Pattern pattern = getPattern(queryConfiguration, regex);
-            final Matcher matcher = pattern.matcher(input);
-            if (matcher.matches()) {
-                if (isNull(captureGroups) || captureGroups.isEmpty()) {
-                    templateVariables.put("extract.query." + queryConfiguration.getName(), matcher.group(0));
-                } else {
-                    for (String group : captureGroups) {
-                        templateVariables.put("extract.query." + group, matcher.group(group));
-                    }
-                }
-            }
+        // render url and header templates, the shared map configuration is not modified
+        final Template urlTemplate = mapConfiguration.getUrlTemplate();
+        final String url = nonNull(urlTemplate) ? urlTemplate.render(requestVariableResolver) : mapConfiguration.getUrl();
+        // map headers are rendered into their own map, request headers stay as they are received
+        // and override the request headers only when the downstream request is built
+        final Map<String, String> mapHeaders = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (Map.Entry<String, Template> entry : mapConfiguration.getHeaderTemplates().entrySet()) {
+            mapHeaders.put(entry.getKey(), entry.getValue().render(requestVariableResolver));
         }
+        // return new map configuration
+        return mapConfiguration.toBuilder()
+                .url(url)
+                .headers(Collections.unmodifiableMap(mapHeaders))
+                .build();
     }
 
-    private Optional<GlobalConfiguration.RouteConfiguration> matchRouteConfiguration(
+    private boolean isRouteMatch(
             final HttpServletRequest httpServletRequest,
             final String uri,
             final Map<String, String> requestHeaders,
-            final Map<String, String> templateVariables,
             final GlobalConfiguration.RouteConfiguration routeConfiguration
     ) {
         boolean match = false;
         final GlobalConfiguration.MatchConfiguration matchConfiguration = routeConfiguration.getMatchConfiguration();
         final List<GlobalConfiguration.PathConfiguration> pathConfigurations = matchConfiguration.getPathConfiguration();
         for (GlobalConfiguration.PathConfiguration pathConfiguration : pathConfigurations) {
-            match = isPathMatch(uri, templateVariables, match, pathConfiguration);
+            match = isPathMatch(uri, match, pathConfiguration);
             if (!match) {
                 break;
             }
@@ -255,7 +186,7 @@ public class RouteMatchingFilter implements ArchuraFilter {
 
         final List<GlobalConfiguration.HeaderConfiguration> headerConfigurations = matchConfiguration.getHeaderConfiguration();
         for (GlobalConfiguration.HeaderConfiguration headerConfiguration : headerConfigurations) {
-            match = isHeaderMatch(requestHeaders, templateVariables, match, headerConfiguration);
+            match = isHeaderMatch(requestHeaders, match, headerConfiguration);
             if (!match) {
                 break;
             }
@@ -263,134 +194,58 @@ public class RouteMatchingFilter implements ArchuraFilter {
 
         final List<GlobalConfiguration.QueryConfiguration> queryConfigurations = matchConfiguration.getQueryConfiguration();
         for (GlobalConfiguration.QueryConfiguration queryConfiguration : queryConfigurations) {
-            match = isQueryMatch(httpServletRequest, templateVariables, match, queryConfiguration);
+            match = isQueryMatch(httpServletRequest, match, queryConfiguration);
             if (!match) {
                 break;
             }
         }
-
-        if (match) {
-            final GlobalConfiguration.ExtractConfiguration extractConfiguration = routeConfiguration.getExtractConfiguration();
-            addExtractVariables(httpServletRequest, requestHeaders, templateVariables, extractConfiguration);
-            addRequestVariables(httpServletRequest, requestHeaders, templateVariables, routeConfiguration);
-            return Optional.of(routeConfiguration);
-        } else {
-            return Optional.empty();
-        }
+        return match;
     }
 
     private boolean isPathMatch(
             final String input,
-            final Map<String, String> templateVariables,
-            boolean match,
+            final boolean match,
             final GlobalConfiguration.PathConfiguration pathConfiguration
     ) {
         if (nonNull(pathConfiguration)) {
-            final String regex = pathConfiguration.getRegex();
-            final List<String> captureGroups = pathConfiguration.getCaptureGroups();
-            final Pattern pattern = getPattern(pathConfiguration, regex);
-            final Matcher matcher = pattern.matcher(input);
-            if (matcher.matches()) {
-                if (isNull(captureGroups) || captureGroups.isEmpty()) {
-                    templateVariables.put("match.path", matcher.group(0));
-                } else {
-                    for (String group : captureGroups) {
-                        templateVariables.put("match.path." + group, matcher.group(group));
-                    }
-                }
-                match = true;
-            } else {
-                match = false;
-            }
+            final Pattern pattern = getPattern(pathConfiguration, pathConfiguration.getRegex());
+            return pattern.matcher(input).matches();
         }
         return match;
     }
 
     private boolean isHeaderMatch(
             final Map<String, String> requestHeaders,
-            final Map<String, String> templateVariables,
-            boolean match,
+            final boolean match,
             final GlobalConfiguration.HeaderConfiguration headerConfiguration
     ) {
         if (nonNull(headerConfiguration)) {
             if (requestHeaders.containsKey(headerConfiguration.getName())) {
                 final String input = requestHeaders.get(headerConfiguration.getName());
-                final String regex = headerConfiguration.getRegex();
-                final List<String> captureGroups = headerConfiguration.getCaptureGroups();
-                final Pattern pattern = getPattern(headerConfiguration, regex);
-                final Matcher matcher = pattern.matcher(input);
-                if (matcher.matches()) {
-                    if (isNull(captureGroups) || captureGroups.isEmpty()) {
-                        templateVariables.put("match.header." + headerConfiguration.getName(), matcher.group(0));
-                    } else {
-                        for (String group : captureGroups) {
-                            templateVariables.put("match.header." + group, matcher.group(group));
-                        }
-                    }
-                    match = true;
-                } else {
-                    match = false;
-                }
-            } else {
-                match = false;
+                final Pattern pattern = getPattern(headerConfiguration, headerConfiguration.getRegex());
+                return pattern.matcher(input).matches();
             }
+            return false;
         }
         return match;
     }
 
     private boolean isQueryMatch(
             final HttpServletRequest httpServletRequest,
-            final Map<String, String> templateVariables,
-            boolean match,
+            final boolean match,
             final GlobalConfiguration.QueryConfiguration queryConfiguration
     ) {
         if (nonNull(queryConfiguration)) {
             if (httpServletRequest.getParameterMap().containsKey(queryConfiguration.getName())) {
                 final String input = httpServletRequest.getParameter(queryConfiguration.getName());
-                final String regex = queryConfiguration.getRegex();
-                final List<String> captureGroups = queryConfiguration.getCaptureGroups();
-                final Pattern pattern = getPattern(queryConfiguration, regex);
-                final Matcher matcher = pattern.matcher(input);
-                if (matcher.matches()) {
-                    if (isNull(captureGroups) || captureGroups.isEmpty()) {
-                        templateVariables.put("match.query." + queryConfiguration.getName(), matcher.group(0));
-                    } else {
-                        for (String group : captureGroups) {
-                            templateVariables.put("match.query." + group, matcher.group(group));
-                        }
-                    }
-                    match = true;
-                } else {
-                    match = false;
-                }
-            } else {
-                match = false;
+                final Pattern pattern = getPattern(queryConfiguration, queryConfiguration.getRegex());
+                return pattern.matcher(input).matches();
             }
+            return false;
         }
         return match;
     }
 
-    private void addRequestVariables(
-            final HttpServletRequest httpServletRequest,
-            final Map<String, String> requestHeaders,
-            final Map<String, String> templateVariables,
-            final GlobalConfiguration.RouteConfiguration routeConfiguration
-    ) {
-        templateVariables.put("request.path", httpServletRequest.getRequestURI());
-        templateVariables.put("request.method", httpServletRequest.getMethod());
-        templateVariables.put("request.query", isNull(httpServletRequest.getQueryString()) ? "" : httpServletRequest.getQueryString());
-        for (Map.Entry<String, String> entry : requestHeaders.entrySet()) {
-            templateVariables.put("request.header." + entry.getKey(), entry.getValue());
-        }
-        final GlobalConfiguration.DomainConfiguration domainConfiguration =
-                (GlobalConfiguration.DomainConfiguration) httpServletRequest.getAttribute(ARCHURA_CURRENT_DOMAIN);
-        final GlobalConfiguration.TenantConfiguration tenantConfiguration =
-                (GlobalConfiguration.TenantConfiguration) httpServletRequest.getAttribute(ARCHURA_CURRENT_TENANT);
-        templateVariables.put("request.domain.name", domainConfiguration.getName());
-        templateVariables.put("request.tenant.name", tenantConfiguration.getName());
-        templateVariables.put("request.route.name", routeConfiguration.getName());
-    }
-
     private GlobalConfiguration.RouteConfiguration getNotFoundRouteConfiguration(
             final HttpServletRequest httpServletRequest,
             final GlobalConfiguration.RouteMatchingFilterConfiguration configuration
@@ -399,8 +254,7 @@ public class RouteMatchingFilter implements ArchuraFilter {
         final String notFoundUrl = configuration.getParameters().get(ARCHURA_ROUTE_NOT_FOUND_URL);
         if (nonNull(notFoundUrl)) {
             final String method = httpServletRequest.getMethod();
-            final Map<String, String> requestHeaders = getRequestHeaders(httpServletRequest);
-            final GlobalConfiguration.MapConfiguration notFoundMap = createNotFoundMap(requestHeaders, method, notFoundUrl);
+            final GlobalConfiguration.MapConfiguration notFoundMap = createNotFoundMap(method, notFoundUrl);
             notFoundRoute.setMapConfiguration(notFoundMap);
         } else {
             notFoundRoute.setPredefinedResponseConfiguration(
@@ -413,42 +267,21 @@ public class RouteMatchingFilter implements ArchuraFilter {
     }
 
     private GlobalConfiguration.MapConfiguration createNotFoundMap(
-            final Map<String, String> requestHeaders,
             final String method,
             final String notFoundUrl
     ) {
         final GlobalConfiguration.MapConfiguration notFoundMap = new GlobalConfiguration.MapConfiguration();
         notFoundMap.setUrl(notFoundUrl);
         notFoundMap.setMethodMap(Map.of(method, DEFAULT_HTTP_METHOD));
-        notFoundMap.setHeaders(requestHeaders);
         return notFoundMap;
     }
 
-    private Map<String, String> getRequestHeaders(final HttpServletRequest httpServletRequest) {
-        final Object attributes = httpServletRequest.getAttribute(ARCHURA_REQUEST_HEADERS);
-        if (isNull(attributes)) {
-            final Map<String, String> headers = new HashMap<>();
-            for (String headerName : Collections.list(httpServletRequest.getHeaderNames())) {
-                String headerValue = httpServletRequest.getHeader(headerName);
-                if (!RESTRICTED_HEADER_NAMES.contains(headerName.toLowerCase())) {
-                    headers.put(headerName, headerValue);
-                }
-            }
-            httpServletRequest.setAttribute(ARCHURA_REQUEST_HEADERS, headers);
-        }
-        @SuppressWarnings("unchecked") final Map<String, String> requestHeaders = (Map<String, String>) httpServletRequest.getAttribute(ARCHURA_REQUEST_HEADERS);
-        return requestHeaders;
-    }
-
     private Pattern getPattern(
             final GlobalConfiguration.PatternHolder patternHolder,
             final String regex
     ) {
-        if (isNull(patternHolder.getPattern())) {
-            final Pattern pattern = Pattern.compile(regex);
-            patternHolder.setPattern(pattern);
-        }
-        return patternHolder.getPattern();
+        final Pattern pattern = patternHolder.getPattern();
+        return isNull(pattern) ? Pattern.compile(regex) : pattern;
     }
 
 }
@@ -1,6 +1,7 @@
 package io.archura.router.filter.internal;
 
 import io.archura.router.config.GlobalConfiguration;
+import io.archura.router.context.RequestContext;
 import io.archura.router.filter.ArchuraFilter;
 import io.archura.router.filter.exception.ArchuraFilterException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -14,8 +15,6 @@ import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import static io.archura.router.filter.ArchuraKeys.ARCHURA_CURRENT_DOMAIN;
-import static io.archura.router.filter.ArchuraKeys.ARCHURA_CURRENT_TENANT;
 import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 
@@ -27,17 +26,15 @@ public class TenantFilter implements ArchuraFilter {
     @Override
     public void doFilter(
             final GlobalConfiguration.FilterConfiguration configuration,
+            final RequestContext requestContext,
             final HttpServletRequest httpServletRequest,
             final HttpServletResponse httpServletResponse
     ) throws ArchuraFilterException {
         log.debug("↓ TenantFilter started");
-        final Object domainConfiguration = httpServletRequest.getAttribute(ARCHURA_CURRENT_DOMAIN);
-        if (isNull(domainConfiguration)) {
+        final GlobalConfiguration.DomainConfiguration currentDomainConfiguration = requestContext.getDomain();
+        if (isNull(currentDomainConfiguration)) {
             throw new ArchuraFilterException(HttpStatus.NOT_FOUND.value(), "No domain configuration found for request.");
         }
-        if (!(domainConfiguration instanceof final GlobalConfiguration.DomainConfiguration currentDomainConfiguration)) {
-            throw new ArchuraFilterException(HttpStatus.NOT_FOUND.value(), "No DomainConfiguration found in request.");
-        }
         log.debug("\tcurrent domain set to: '{}'", currentDomainConfiguration.getName());
         if (!(configuration instanceof final GlobalConfiguration.TenantFilterConfiguration tenantFilterConfiguration)) {
             throw new ArchuraFilterException(HttpStatus.INTERNAL_SERVER_ERROR.value(), "Provided configuration is not a TenantFilterConfiguration object.");
@@ -51,7 +48,7 @@ public class TenantFilter implements ArchuraFilter {
         if (isNull(tenantConfiguration)) {
             throw new ArchuraFilterException(HttpStatus.NOT_FOUND.value(), "No tenant configuration found for tenantId: '%s'".formatted(tenantId));
         }
-        httpServletRequest.setAttribute(ARCHURA_CURRENT_TENANT, tenantConfiguration);
+        requestContext.setTenant(tenantConfiguration);
         log.debug("\tcurrent tenant set to: '{}'", tenantConfiguration.getName());
         log.debug("↑ TenantFilter finished");
     }
@@ -166,11 +163,8 @@ public class TenantFilter implements ArchuraFilter {
             final GlobalConfiguration.PatternHolder patternHolder,
             final String regex
     ) {
-        if (isNull(patternHolder.getPattern())) {
-            final Pattern pattern = Pattern.compile(regex);
-            patternHolder.setPattern(pattern);
-        }
-        return patternHolder.getPattern();
+        final Pattern pattern = patternHolder.getPattern();
+        return isNull(pattern) ? Pattern.compile(regex) : pattern;
     }
 
 }
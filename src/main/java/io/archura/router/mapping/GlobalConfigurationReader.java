@@ -0,0 +1,10 @@
+package io.archura.router.mapping;
+
+import io.archura.router.config.GlobalConfiguration;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface GlobalConfigurationReader {
+    GlobalConfiguration read(final InputStream inputStream) throws IOException;
+}
@@ -0,0 +1,10 @@
+package io.archura.router.mapping;
+
+import io.archura.router.config.GlobalConfiguration;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface GlobalConfigurationWriter {
+    void write(final GlobalConfiguration globalConfiguration, final OutputStream outputStream) throws IOException;
+}
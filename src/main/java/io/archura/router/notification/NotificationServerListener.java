@@ -18,17 +18,27 @@ import java.util.concurrent.CompletionStage;
 public class NotificationServerListener implements WebSocket.Listener {
 
     private final ApplicationEventPublisher applicationEventPublisher;
+    private final StringBuilder text = new StringBuilder();
 
     @Override
     public void onOpen(WebSocket webSocket) {
         log.debug("Connected to notification server");
+        text.setLength(0);
+        webSocket.request(1);
         Thread.startVirtualThread(() -> applicationEventPublisher.publishEvent(new NotificationServerConnectedEvent(this)));
     }
 
     @Override
     public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
-        log.debug("Received notification from notification server: {}", data);
-        Thread.startVirtualThread(() -> applicationEventPublisher.publishEvent(new NotificationServerTextMessageEvent(this, data.toString())));
+        text.append(data);
+        if (last) {
+            final String message = text.toString();
+            text.setLength(0);
+            log.debug("Received notification from notification server: {}", message);
+            // published on the listener thread, configuration deltas must be handled in the order they are received
+            applicationEventPublisher.publishEvent(new NotificationServerTextMessageEvent(this, message));
+        }
+        webSocket.request(1);
         return null;
     }
 
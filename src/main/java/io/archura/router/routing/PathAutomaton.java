@@ -0,0 +1,705 @@
+package io.archura.router.routing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Combined automaton of the path regexes of many routes.
+ * All regexes are compiled into one NFA, which is turned into a DFA lazily while requests are matched,
+ * so the request URI is scanned once no matter how many routes there are.
+ * Only a subset of the regex syntax is supported; literals, '.', character classes, \d \w \s and their negations,
+ * groups, alternation, greedy or lazy quantifiers, and '^' / '$' at the beginning / end of the regex.
+ * Regexes outside this subset are not compiled, the caller keeps matching them with their own Pattern.
+ * Transitions missing from the DFA are computed with a small pool of closure buffers sized by the NFA,
+ * when all of them are in use the input is not matched by the automaton and the caller evaluates the regexes one by one.
+ */
+class PathAutomaton {
+
+    private static final int MAX_REPETITION = 100;
+    /**
+     * Limits the closure buffers to about 500 KB each, an NFA state takes 25 bytes in them.
+     */
+    private static final int MAX_NFA_STATES = 20_000;
+    private static final int MAX_DFA_STATES = 10_000;
+    private static final int CLOSURE_BUFFERS_POOL_SIZE = 4;
+    private static final int ASCII = 128;
+
+    private static final int KIND_CHARS = 0;
+    private static final int KIND_SPLIT = 1;
+    private static final int KIND_ACCEPT = 2;
+
+    private final int[] kinds;
+    private final int[] outs;
+    private final int[] alternativeOuts;
+    private final CharSet[] charSets;
+    private final int[] acceptedPatterns;
+    private final int[] patternRoutes;
+    private final int[] routePatternCounts;
+    private final Map<StateKey, DfaState> dfaStates = new ConcurrentHashMap<>();
+    private final BlockingQueue<ClosureBuffers> closureBuffersPool = new ArrayBlockingQueue<>(CLOSURE_BUFFERS_POOL_SIZE);
+    private final AtomicInteger createdClosureBuffers = new AtomicInteger();
+    private final DfaState startState;
+
+    private PathAutomaton(final NfaBuilder builder, final int[] patternRoutes, final int[] routePatternCounts) {
+        this.kinds = builder.kinds.stream().mapToInt(Integer::intValue).toArray();
+        this.outs = builder.outs.stream().mapToInt(Integer::intValue).toArray();
+        this.alternativeOuts = builder.alternativeOuts.stream().mapToInt(Integer::intValue).toArray();
+        this.charSets = builder.charSets.toArray(new CharSet[0]);
+        this.acceptedPatterns = builder.acceptedPatterns.stream().mapToInt(Integer::intValue).toArray();
+        this.patternRoutes = patternRoutes;
+        this.routePatternCounts = routePatternCounts;
+        final int[] startStates = builder.startStates.stream().mapToInt(Integer::intValue).toArray();
+        final ClosureBuffers buffers = acquireClosureBuffers();
+        this.startState = dfaState(closure(startStates, startStates.length, buffers));
+        releaseClosureBuffers(buffers);
+    }
+
+    /**
+     * Parses the regex and returns its syntax tree, or empty if the regex is not supported by the automaton.
+     */
+    static Optional<Node> parse(final String regex) {
+        try {
+            return Optional.of(new Parser(regex).parse());
+        } catch (UnsupportedRegexException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Compiles the path regexes of the routes into one automaton.
+     * A route matches when all of its regexes match, the route ids are the positions in the given list.
+     */
+    static Optional<PathAutomaton> compile(final List<List<Node>> routePatterns) {
+        final NfaBuilder builder = new NfaBuilder();
+        final List<Integer> patternRoutes = new ArrayList<>();
+        final int[] routePatternCounts = new int[routePatterns.size()];
+        try {
+            for (int routeId = 0; routeId < routePatterns.size(); routeId++) {
+                for (Node pattern : routePatterns.get(routeId)) {
+                    builder.addPattern(pattern, patternRoutes.size());
+                    patternRoutes.add(routeId);
+                    routePatternCounts[routeId]++;
+                }
+            }
+        } catch (UnsupportedRegexException e) {
+            return Optional.empty();
+        }
+        final int[] routes = patternRoutes.stream().mapToInt(Integer::intValue).toArray();
+        return Optional.of(new PathAutomaton(builder, routes, routePatternCounts));
+    }
+
+    /**
+     * Returns the ids of the routes whose regexes all fully match the input, in ascending order,
+     * or null if the input can not be matched by the automaton and the regexes should be evaluated one by one.
+     */
+    int[] findMatchingRouteIds(final String input) {
+        DfaState state = startState;
+        // acquired for the first character without a cached transition, i.e. for every match once the DFA cache is full
+        ClosureBuffers buffers = null;
+        try {
+            for (int position = 0; position < input.length() && state.nfaStates.length > 0; position++) {
+                final char character = input.charAt(position);
+                if (Character.isSurrogate(character)) {
+                    return null;
+                }
+                DfaState next = character < ASCII
+                        ? state.asciiTransitions.get(character)
+                        : state.transitions.get(character);
+                if (isNull(next)) {
+                    if (isNull(buffers)) {
+                        buffers = acquireClosureBuffers();
+                        if (isNull(buffers)) {
+                            return null;
+                        }
+                    }
+                    next = next(state, character, buffers);
+                }
+                state = next;
+            }
+            return state.routeIds;
+        } finally {
+            if (nonNull(buffers)) {
+                releaseClosureBuffers(buffers);
+            }
+        }
+    }
+
+    /**
+     * Returns pooled closure buffers, creates them until the pool size is reached, returns null if all of them are in use.
+     */
+    private ClosureBuffers acquireClosureBuffers() {
+        final ClosureBuffers pooled = closureBuffersPool.poll();
+        if (nonNull(pooled)) {
+            return pooled;
+        }
+        if (createdClosureBuffers.incrementAndGet() > CLOSURE_BUFFERS_POOL_SIZE) {
+            createdClosureBuffers.decrementAndGet();
+            return null;
+        }
+        return new ClosureBuffers(kinds.length);
+    }
+
+    private void releaseClosureBuffers(final ClosureBuffers buffers) {
+        closureBuffersPool.offer(buffers);
+    }
+
+    private DfaState next(final DfaState state, final char character, final ClosureBuffers buffers) {
+        final DfaState next = dfaState(step(state.nfaStates, character, buffers));
+        // only link states that are kept in the cache, otherwise the number of states would grow without bounds
+        if (state.cached && next.cached) {
+            if (character < ASCII) {
+                state.asciiTransitions.set(character, next);
+            } else {
+                state.transitions.put(character, next);
+            }
+        }
+        return next;
+    }
+
+    private int[] step(final int[] nfaStates, final char character, final ClosureBuffers buffers) {
+        final int[] targets = buffers.targets;
+        int count = 0;
+        for (int nfaState : nfaStates) {
+            if (kinds[nfaState] == KIND_CHARS && charSets[nfaState].matches(character)) {
+                targets[count++] = outs[nfaState];
+            }
+        }
+        return closure(targets, count, buffers);
+    }
+
+    private int[] closure(final int[] nfaStates, final int count, final ClosureBuffers buffers) {
+        final boolean[] visited = buffers.visited;
+        final int[] stack = buffers.stack;
+        final int[] closure = buffers.closure;
+        int visitedCount = 0;
+        int closureSize = 0;
+        int size = 0;
+        for (int i = 0; i < count; i++) {
+            stack[size++] = nfaStates[i];
+        }
+        while (size > 0) {
+            final int nfaState = stack[--size];
+            if (nfaState < 0 || visited[nfaState]) {
+                continue;
+            }
+            visited[nfaState] = true;
+            buffers.visitedStates[visitedCount++] = nfaState;
+            if (kinds[nfaState] == KIND_SPLIT) {
+                stack[size++] = outs[nfaState];
+                stack[size++] = alternativeOuts[nfaState];
+            } else {
+                closure[closureSize++] = nfaState;
+            }
+        }
+        // reset only the visited states, so the buffers cost nothing for the next character
+        for (int i = 0; i < visitedCount; i++) {
+            visited[buffers.visitedStates[i]] = false;
+        }
+        final int[] result = Arrays.copyOf(closure, closureSize);
+        Arrays.sort(result);
+        return result;
+    }
+
+    private DfaState dfaState(final int[] nfaStates) {
+        final StateKey key = new StateKey(nfaStates);
+        final DfaState existing = dfaStates.get(key);
+        if (nonNull(existing)) {
+            return existing;
+        }
+        if (dfaStates.size() >= MAX_DFA_STATES) {
+            return new DfaState(nfaStates, acceptedRouteIds(nfaStates), false);
+        }
+        final DfaState created = new DfaState(nfaStates, acceptedRouteIds(nfaStates), true);
+        final DfaState raced = dfaStates.putIfAbsent(key, created);
+        return nonNull(raced) ? raced : created;
+    }
+
+    private int[] acceptedRouteIds(final int[] nfaStates) {
+        final Map<Integer, Integer> acceptedPatternCounts = new HashMap<>();
+        for (int nfaState : nfaStates) {
+            if (kinds[nfaState] == KIND_ACCEPT) {
+                acceptedPatternCounts.merge(patternRoutes[acceptedPatterns[nfaState]], 1, Integer::sum);
+            }
+        }
+        return acceptedPatternCounts.entrySet().stream()
+                .filter(entry -> entry.getValue() == routePatternCounts[entry.getKey()])
+                .mapToInt(Map.Entry::getKey)
+                .sorted()
+                .toArray();
+    }
+
+    /**
+     * Buffers of the closure computation, sized by the number of NFA states, reused for every character of a match and pooled between matches.
+     * Every state is pushed at most once for each of its two outs, plus once as a step target.
+     */
+    private static final class ClosureBuffers {
+        private final boolean[] visited;
+        private final int[] visitedStates;
+        private final int[] targets;
+        private final int[] closure;
+        private final int[] stack;
+
+        private ClosureBuffers(final int nfaStateCount) {
+            this.visited = new boolean[nfaStateCount];
+            this.visitedStates = new int[nfaStateCount];
+            this.targets = new int[nfaStateCount];
+            this.closure = new int[nfaStateCount];
+            this.stack = new int[3 * nfaStateCount];
+        }
+    }
+
+    private static final class DfaState {
+        private final int[] nfaStates;
+        private final int[] routeIds;
+        private final boolean cached;
+        private final AtomicReferenceArray<DfaState> asciiTransitions = new AtomicReferenceArray<>(ASCII);
+        private final Map<Character, DfaState> transitions = new ConcurrentHashMap<>();
+
+        private DfaState(final int[] nfaStates, final int[] routeIds, final boolean cached) {
+            this.nfaStates = nfaStates;
+            this.routeIds = routeIds;
+            this.cached = cached;
+        }
+    }
+
+    private record StateKey(int[] nfaStates) {
+        @Override
+        public boolean equals(final Object other) {
+            return other instanceof StateKey stateKey && Arrays.equals(nfaStates, stateKey.nfaStates);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(nfaStates);
+        }
+
+        @Override
+        public String toString() {
+            return Arrays.toString(nfaStates);
+        }
+    }
+
+    /**
+     * Syntax tree of a supported regex.
+     */
+    sealed interface Node permits Chars, Sequence, Alternation, Repetition {
+    }
+
+    record Chars(CharSet charSet) implements Node {
+    }
+
+    record Sequence(List<Node> nodes) implements Node {
+    }
+
+    record Alternation(List<Node> nodes) implements Node {
+    }
+
+    record Repetition(Node node, int min, int max) implements Node {
+    }
+
+    /**
+     * Set of characters as sorted inclusive ranges.
+     */
+    record CharSet(int[] ranges, boolean negated) {
+        private static final CharSet ANY_BUT_LINE_TERMINATORS = new CharSet(new int[]{'\n', '\n', '\r', '\r', '\u0085', '\u0085', '\u2028', '\u2029'}, true);
+        private static final int[] DIGITS = {'0', '9'};
+        private static final int[] WORDS = {'0', '9', 'A', 'Z', '_', '_', 'a', 'z'};
+        private static final int[] SPACES = {'\t', '\r', ' ', ' '};
+
+        boolean matches(final char character) {
+            for (int i = 0; i < ranges.length; i += 2) {
+                if (character >= ranges[i] && character <= ranges[i + 1]) {
+                    return !negated;
+                }
+            }
+            return negated;
+        }
+    }
+
+    private static final class UnsupportedRegexException extends Exception {
+        private UnsupportedRegexException(final String message) {
+            super(message, null, false, false);
+        }
+    }
+
+    private static final class Parser {
+        private final String regex;
+        private int position;
+
+        private Parser(final String regex) {
+            this.regex = regex;
+        }
+
+        private Node parse() throws UnsupportedRegexException {
+            final Node node = alternation();
+            if (position != regex.length()) {
+                throw new UnsupportedRegexException("unbalanced group");
+            }
+            return node;
+        }
+
+        private Node alternation() throws UnsupportedRegexException {
+            final List<Node> alternatives = new ArrayList<>();
+            alternatives.add(sequence());
+            while (position < regex.length() && regex.charAt(position) == '|') {
+                position++;
+                alternatives.add(sequence());
+            }
+            return alternatives.size() == 1 ? alternatives.get(0) : new Alternation(alternatives);
+        }
+
+        private Node sequence() throws UnsupportedRegexException {
+            final List<Node> nodes = new ArrayList<>();
+            while (position < regex.length() && regex.charAt(position) != '|' && regex.charAt(position) != ')') {
+                final Node node = repetition();
+                if (nonNull(node)) {
+                    nodes.add(node);
+                }
+            }
+            return nodes.size() == 1 ? nodes.get(0) : new Sequence(nodes);
+        }
+
+        private Node repetition() throws UnsupportedRegexException {
+            Node node = atom();
+            while (position < regex.length()) {
+                final char current = regex.charAt(position);
+                final int min;
+                final int max;
+                if (current == '*') {
+                    min = 0;
+                    max = -1;
+                    position++;
+                } else if (current == '+') {
+                    min = 1;
+                    max = -1;
+                    position++;
+                } else if (current == '?') {
+                    min = 0;
+                    max = 1;
+                    position++;
+                } else if (current == '{') {
+                    position++;
+                    min = number();
+                    if (peek(',')) {
+                        position++;
+                        max = peek('}') ? -1 : number();
+                    } else {
+                        max = min;
+                    }
+                    expect('}');
+                } else {
+                    break;
+                }
+                if (isNull(node)) {
+                    throw new UnsupportedRegexException("quantifier without a target");
+                }
+                if (peek('?')) {
+                    // lazy quantifiers match the same inputs as the greedy ones
+                    position++;
+                } else if (peek('+')) {
+                    throw new UnsupportedRegexException("possessive quantifier");
+                }
+                if (min > MAX_REPETITION || max > MAX_REPETITION) {
+                    throw new UnsupportedRegexException("repetition is too large");
+                }
+                node = new Repetition(node, min, max);
+            }
+            return node;
+        }
+
+        private Node atom() throws UnsupportedRegexException {
+            final char current = regex.charAt(position);
+            switch (current) {
+                case '(' -> {
+                    position++;
+                    if (regex.startsWith("?:", position)) {
+                        position += 2;
+                    } else if (regex.startsWith("?<", position)
+                            && position + 2 < regex.length()
+                            && Character.isLetter(regex.charAt(position + 2))) {
+                        final int end = regex.indexOf('>', position);
+                        if (end < 0) {
+                            throw new UnsupportedRegexException("unterminated group name");
+                        }
+                        position = end + 1;
+                    } else if (peek('?')) {
+                        throw new UnsupportedRegexException("lookaround, atomic group or flags");
+                    }
+                    final Node node = alternation();
+                    expect(')');
+                    return node;
+                }
+                case '[' -> {
+                    return characterClass();
+                }
+                case '.' -> {
+                    position++;
+                    return new Chars(CharSet.ANY_BUT_LINE_TERMINATORS);
+                }
+                case '\\' -> {
+                    position++;
+                    return new Chars(escape(false));
+                }
+                case '^' -> {
+                    if (position != 0) {
+                        throw new UnsupportedRegexException("'^' not at the beginning");
+                    }
+                    position++;
+                    return null;
+                }
+                case '$' -> {
+                    if (position != regex.length() - 1) {
+                        throw new UnsupportedRegexException("'$' not at the end");
+                    }
+                    position++;
+                    return null;
+                }
+                case '*', '+', '?', '{' -> throw new UnsupportedRegexException("dangling quantifier");
+                default -> {
+                    position++;
+                    return new Chars(literal(current));
+                }
+            }
+        }
+
+        private Node characterClass() throws UnsupportedRegexException {
+            position++;
+            final boolean negated = peek('^');
+            if (negated) {
+                position++;
+            }
+            if (peek(']')) {
+                throw new UnsupportedRegexException("class starting with ']'");
+            }
+            final List<Integer> ranges = new ArrayList<>();
+            while (!peek(']')) {
+                if (position >= regex.length() || peek('[') || regex.startsWith("&&", position)) {
+                    throw new UnsupportedRegexException("nested class or intersection");
+                }
+                final CharSet element;
+                if (peek('\\')) {
+                    position++;
+                    element = escape(true);
+                } else {
+                    element = literal(regex.charAt(position++));
+                }
+                final boolean single = element.ranges().length == 2 && element.ranges()[0] == element.ranges()[1];
+                if (single && peek('-') && position + 1 < regex.length() && regex.charAt(position + 1) != ']') {
+                    position++;
+                    final CharSet upper;
+                    if (peek('\\')) {
+                        position++;
+                        upper = escape(true);
+                    } else {
+                        upper = literal(regex.charAt(position++));
+                    }
+                    if (upper.ranges().length != 2 || upper.ranges()[0] != upper.ranges()[1]) {
+                        throw new UnsupportedRegexException("range with a class bound");
+                    }
+                    ranges.add(element.ranges()[0]);
+                    ranges.add(upper.ranges()[0]);
+                } else {
+                    for (int range : element.ranges()) {
+                        ranges.add(range);
+                    }
+                }
+            }
+            position++;
+            return new Chars(new CharSet(ranges.stream().mapToInt(Integer::intValue).toArray(), negated));
+        }
+
+        private CharSet escape(final boolean inClass) throws UnsupportedRegexException {
+            if (position >= regex.length()) {
+                throw new UnsupportedRegexException("trailing backslash");
+            }
+            final char escaped = regex.charAt(position++);
+            return switch (escaped) {
+                case 'd' -> new CharSet(CharSet.DIGITS, false);
+                case 'w' -> new CharSet(CharSet.WORDS, false);
+                case 's' -> new CharSet(CharSet.SPACES, false);
+                case 'D', 'W', 'S' -> {
+                    if (inClass) {
+                        throw new UnsupportedRegexException("negated class inside a class");
+                    }
+                    final CharSet positive = escaped == 'D'
+                            ? new CharSet(CharSet.DIGITS, false)
+                            : escaped == 'W' ? new CharSet(CharSet.WORDS, false) : new CharSet(CharSet.SPACES, false);
+                    yield new CharSet(positive.ranges(), true);
+                }
+                case 't' -> literal('\t');
+                case 'n' -> literal('\n');
+                case 'r' -> literal('\r');
+                case 'f' -> literal('\f');
+                case 'a' -> literal('\u0007');
+                case 'e' -> literal('\u001B');
+                default -> {
+                    if (Character.isLetterOrDigit(escaped)) {
+                        throw new UnsupportedRegexException("escape sequence '\\%s'".formatted(escaped));
+                    }
+                    yield literal(escaped);
+                }
+            };
+        }
+
+        private CharSet literal(final char character) throws UnsupportedRegexException {
+            if (Character.isSurrogate(character)) {
+                throw new UnsupportedRegexException("supplementary character");
+            }
+            return new CharSet(new int[]{character, character}, false);
+        }
+
+        private int number() throws UnsupportedRegexException {
+            final int start = position;
+            while (position < regex.length() && Character.isDigit(regex.charAt(position)) && position - start < 4) {
+                position++;
+            }
+            if (start == position) {
+                throw new UnsupportedRegexException("invalid repetition");
+            }
+            return Integer.parseInt(regex, start, position, 10);
+        }
+
+        private boolean peek(final char character) {
+            return position < regex.length() && regex.charAt(position) == character;
+        }
+
+        private void expect(final char character) throws UnsupportedRegexException {
+            if (!peek(character)) {
+                throw new UnsupportedRegexException("expected '%s'".formatted(character));
+            }
+            position++;
+        }
+    }
+
+    /**
+     * Thompson construction of the NFA, the dangling outputs of a fragment are encoded as 'state * 2 + alternative'.
+     */
+    private static final class NfaBuilder {
+        private final List<Integer> kinds = new ArrayList<>();
+        private final List<Integer> outs = new ArrayList<>();
+        private final List<Integer> alternativeOuts = new ArrayList<>();
+        private final List<CharSet> charSets = new ArrayList<>();
+        private final List<Integer> acceptedPatterns = new ArrayList<>();
+        private final List<Integer> startStates = new ArrayList<>();
+
+        private void addPattern(final Node pattern, final int patternId) throws UnsupportedRegexException {
+            final Fragment fragment = fragment(pattern);
+            final int accept = state(KIND_ACCEPT, null, patternId);
+            patch(fragment.outs(), accept);
+            startStates.add(fragment.start());
+        }
+
+        private Fragment fragment(final Node node) throws UnsupportedRegexException {
+            if (kinds.size() > MAX_NFA_STATES) {
+                throw new UnsupportedRegexException("automaton is too large");
+            }
+            if (node instanceof Chars chars) {
+                final int state = state(KIND_CHARS, chars.charSet(), -1);
+                return new Fragment(state, List.of(state * 2));
+            } else if (node instanceof Sequence sequence) {
+                if (sequence.nodes().isEmpty()) {
+                    return empty();
+                }
+                final Fragment first = fragment(sequence.nodes().get(0));
+                List<Integer> danglingOuts = first.outs();
+                for (int i = 1; i < sequence.nodes().size(); i++) {
+                    final Fragment next = fragment(sequence.nodes().get(i));
+                    patch(danglingOuts, next.start());
+                    danglingOuts = next.outs();
+                }
+                return new Fragment(first.start(), danglingOuts);
+            } else if (node instanceof Alternation alternation) {
+                final List<Node> nodes = alternation.nodes();
+                Fragment last = fragment(nodes.get(nodes.size() - 1));
+                for (int i = nodes.size() - 2; i >= 0; i--) {
+                    final Fragment alternative = fragment(nodes.get(i));
+                    final int split = split(alternative.start(), last.start());
+                    final List<Integer> danglingOuts = new ArrayList<>(alternative.outs());
+                    danglingOuts.addAll(last.outs());
+                    last = new Fragment(split, danglingOuts);
+                }
+                return last;
+            } else if (node instanceof Repetition repetition) {
+                return repetition(repetition);
+            }
+            throw new UnsupportedRegexException("unknown node");
+        }
+
+        private Fragment repetition(final Repetition repetition) throws UnsupportedRegexException {
+            final List<Fragment> fragments = new ArrayList<>();
+            for (int i = 0; i < repetition.min(); i++) {
+                fragments.add(fragment(repetition.node()));
+            }
+            if (repetition.max() < 0) {
+                // zero or more
+                final Fragment loop = fragment(repetition.node());
+                final int split = split(loop.start(), -1);
+                patch(loop.outs(), split);
+                fragments.add(new Fragment(split, List.of(split * 2 + 1)));
+            } else {
+                // optional copies
+                for (int i = repetition.min(); i < repetition.max(); i++) {
+                    final Fragment optional = fragment(repetition.node());
+                    final int split = split(optional.start(), -1);
+                    final List<Integer> danglingOuts = new ArrayList<>(optional.outs());
+                    danglingOuts.add(split * 2 + 1);
+                    fragments.add(new Fragment(split, danglingOuts));
+                }
+            }
+            if (fragments.isEmpty()) {
+                return empty();
+            }
+            for (int i = 1; i < fragments.size(); i++) {
+                patch(fragments.get(i - 1).outs(), fragments.get(i).start());
+            }
+            return new Fragment(fragments.get(0).start(), fragments.get(fragments.size() - 1).outs());
+        }
+
+        private Fragment empty() {
+            final int split = split(-1, -1);
+            return new Fragment(split, List.of(split * 2));
+        }
+
+        private int split(final int out, final int alternativeOut) {
+            final int state = state(KIND_SPLIT, null, -1);
+            outs.set(state, out);
+            alternativeOuts.set(state, alternativeOut);
+            return state;
+        }
+
+        private int state(final int kind, final CharSet charSet, final int patternId) {
+            kinds.add(kind);
+            outs.add(-1);
+            alternativeOuts.add(-1);
+            charSets.add(charSet);
+            acceptedPatterns.add(patternId);
+            return kinds.size() - 1;
+        }
+
+        private void patch(final List<Integer> danglingOuts, final int target) {
+            for (int danglingOut : danglingOuts) {
+                if (danglingOut % 2 == 0) {
+                    outs.set(danglingOut / 2, target);
+                } else {
+                    alternativeOuts.set(danglingOut / 2, target);
+                }
+            }
+        }
+    }
+
+    private record Fragment(int start, List<Integer> outs) {
+    }
+
+}
@@ -0,0 +1,305 @@
+package io.archura.router.routing;
+
+import io.archura.router.config.GlobalConfiguration;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Radix tree index of the routes of a single HTTP method.
+ * Every route is stored under the literal prefix of its path regexes,
+ * a lookup walks the request URI once and returns only the routes whose prefix matches the URI,
+ * in the same order as they are defined in the configuration.
+ * Routes without a literal prefix, i.e. path regexes starting with ".*", are compiled into one {@link PathAutomaton},
+ * which returns the routes whose path regexes match the URI in a single pass.
+ */
+public class RouteIndex {
+
+    private static final String REGEX_META_CHARACTERS = "\\.[]{}()*+?^$|";
+    private static final int[] NO_ROUTES = new int[0];
+
+    private final List<GlobalConfiguration.RouteConfiguration> routes;
+    private final Node root = new Node("");
+    private int[] automatonRouteIds = NO_ROUTES;
+    private PathAutomaton automaton;
+
+    private RouteIndex(final List<GlobalConfiguration.RouteConfiguration> routes) {
+        this.routes = routes;
+    }
+
+    /**
+     * Builds a route index for every HTTP method in the given method routes map.
+     */
+    public static Map<String, RouteIndex> build(final Map<String, List<GlobalConfiguration.RouteConfiguration>> methodRoutes) {
+        final Map<String, RouteIndex> routeIndexes = new HashMap<>();
+        if (nonNull(methodRoutes)) {
+            for (Map.Entry<String, List<GlobalConfiguration.RouteConfiguration>> entry : methodRoutes.entrySet()) {
+                if (nonNull(entry.getValue())) {
+                    routeIndexes.put(entry.getKey(), build(entry.getValue()));
+                }
+            }
+        }
+        return routeIndexes;
+    }
+
+    /**
+     * Builds a route index for the given routes, the order of the routes is preserved.
+     */
+    public static RouteIndex build(final List<GlobalConfiguration.RouteConfiguration> routes) {
+        final RouteIndex routeIndex = new RouteIndex(List.copyOf(routes));
+        final List<Integer> automatonRouteIds = new ArrayList<>();
+        final List<List<PathAutomaton.Node>> automatonPatterns = new ArrayList<>();
+        for (int routeId = 0; routeId < routeIndex.routes.size(); routeId++) {
+            final GlobalConfiguration.RouteConfiguration routeConfiguration = routeIndex.routes.get(routeId);
+            final String prefix = literalPrefix(routeConfiguration);
+            final Optional<List<PathAutomaton.Node>> patterns = prefix.isEmpty()
+                    ? automatonPatterns(routeConfiguration)
+                    : Optional.empty();
+            if (patterns.isPresent()) {
+                automatonRouteIds.add(routeId);
+                automatonPatterns.add(patterns.get());
+            } else {
+                routeIndex.root.insert(prefix, routeId);
+            }
+        }
+        if (!automatonRouteIds.isEmpty()) {
+            final Optional<PathAutomaton> automaton = PathAutomaton.compile(automatonPatterns);
+            if (automaton.isPresent()) {
+                routeIndex.automaton = automaton.get();
+                routeIndex.automatonRouteIds = automatonRouteIds.stream().mapToInt(Integer::intValue).toArray();
+            } else {
+                for (int routeId : automatonRouteIds) {
+                    routeIndex.root.insert("", routeId);
+                }
+            }
+        }
+        return routeIndex;
+    }
+
+    /**
+     * Returns the routes that may match the given URI, in configuration order.
+     * Routes that are not returned can not match the URI since their literal prefix is not a prefix of the URI.
+     */
+    public List<GlobalConfiguration.RouteConfiguration> findCandidates(final String uri) {
+        final int[] routeIds = findCandidateIds(uri);
+        final List<GlobalConfiguration.RouteConfiguration> candidates = new ArrayList<>(routeIds.length);
+        for (int routeId : routeIds) {
+            candidates.add(routes.get(routeId));
+        }
+        return candidates;
+    }
+
+    private int[] findCandidateIds(final String uri) {
+        int[] routeIds = merge(root.routeIds, findAutomatonRouteIds(uri));
+        Node node = root;
+        int position = 0;
+        while (position < uri.length()) {
+            final Node child = node.children.get(uri.charAt(position));
+            if (isNull(child) || !uri.startsWith(child.label, position)) {
+                break;
+            }
+            position += child.label.length();
+            node = child;
+            routeIds = merge(routeIds, node.routeIds);
+        }
+        return routeIds;
+    }
+
+    private int[] findAutomatonRouteIds(final String uri) {
+        if (isNull(automaton)) {
+            return NO_ROUTES;
+        }
+        final int[] matchingIds = automaton.findMatchingRouteIds(uri);
+        if (isNull(matchingIds)) {
+            return automatonRouteIds;
+        }
+        final int[] routeIds = new int[matchingIds.length];
+        for (int i = 0; i < matchingIds.length; i++) {
+            routeIds[i] = automatonRouteIds[matchingIds[i]];
+        }
+        return routeIds;
+    }
+
+    /**
+     * Returns the parsed path regexes of the route if all of them can be compiled into the automaton.
+     */
+    private static Optional<List<PathAutomaton.Node>> automatonPatterns(final GlobalConfiguration.RouteConfiguration routeConfiguration) {
+        final GlobalConfiguration.MatchConfiguration matchConfiguration = routeConfiguration.getMatchConfiguration();
+        if (isNull(matchConfiguration) || isNull(matchConfiguration.getPathConfiguration())) {
+            return Optional.empty();
+        }
+        final List<PathAutomaton.Node> patterns = new ArrayList<>();
+        for (GlobalConfiguration.PathConfiguration pathConfiguration : matchConfiguration.getPathConfiguration()) {
+            if (nonNull(pathConfiguration)) {
+                if (isNull(pathConfiguration.getRegex())) {
+                    return Optional.empty();
+                }
+                final Optional<PathAutomaton.Node> pattern = PathAutomaton.parse(pathConfiguration.getRegex());
+                if (pattern.isEmpty()) {
+                    return Optional.empty();
+                }
+                patterns.add(pattern.get());
+            }
+        }
+        return patterns.isEmpty() ? Optional.empty() : Optional.of(patterns);
+    }
+
+    public List<GlobalConfiguration.RouteConfiguration> getRoutes() {
+        return routes;
+    }
+
+    /**
+     * Returns the longest literal prefix among the path regexes of the route,
+     * since all path regexes of a route must match, any of them can be used to narrow the candidates.
+     */
+    static String literalPrefix(final GlobalConfiguration.RouteConfiguration routeConfiguration) {
+        String prefix = "";
+        final GlobalConfiguration.MatchConfiguration matchConfiguration = routeConfiguration.getMatchConfiguration();
+        if (nonNull(matchConfiguration) && nonNull(matchConfiguration.getPathConfiguration())) {
+            for (GlobalConfiguration.PathConfiguration pathConfiguration : matchConfiguration.getPathConfiguration()) {
+                if (nonNull(pathConfiguration) && nonNull(pathConfiguration.getRegex())) {
+                    final String pathPrefix = literalPrefix(pathConfiguration.getRegex());
+                    if (pathPrefix.length() > prefix.length()) {
+                        prefix = pathPrefix;
+                    }
+                }
+            }
+        }
+        return prefix;
+    }
+
+    /**
+     * Returns the literal text every input fully matching the regex has to start with.
+     * i.e.
+     * regex: "/user/(?<id>\d+)" returns "/user/"
+     * regex: "\/api\/v1\/orders.*" returns "/api/v1/orders"
+     * regex: "/users?/.*" returns "/user"
+     * Returns an empty string when the regex has no literal prefix or uses alternation.
+     */
+    static String literalPrefix(final String regex) {
+        if (regex.indexOf('|') >= 0) {
+            return "";
+        }
+        final StringBuilder prefix = new StringBuilder();
+        int position = regex.startsWith("^") ? 1 : 0;
+        while (position < regex.length()) {
+            final char current = regex.charAt(position);
+            final char literal;
+            if (current == '\\') {
+                if (position + 1 >= regex.length() || Character.isLetterOrDigit(regex.charAt(position + 1))) {
+                    // character classes, back references, quotes and anchors
+                    break;
+                }
+                literal = regex.charAt(position + 1);
+                position += 2;
+            } else if (REGEX_META_CHARACTERS.indexOf(current) >= 0) {
+                break;
+            } else {
+                literal = current;
+                position++;
+            }
+            if (Character.isSurrogate(literal)) {
+                break;
+            }
+            if (position < regex.length()) {
+                final char next = regex.charAt(position);
+                if (next == '*' || next == '?' || next == '{') {
+                    // literal is optional or repeated, prefix ends before it
+                    break;
+                }
+                if (next == '+') {
+                    // literal is present at least once, prefix ends with it
+                    prefix.append(literal);
+                    break;
+                }
+            }
+            prefix.append(literal);
+        }
+        return prefix.toString();
+    }
+
+    private static int[] merge(final int[] left, final int[] right) {
+        if (right.length == 0) {
+            return left;
+        }
+        if (left.length == 0) {
+            return right;
+        }
+        final int[] merged = new int[left.length + right.length];
+        int l = 0;
+        int r = 0;
+        int m = 0;
+        while (l < left.length && r < right.length) {
+            merged[m++] = left[l] < right[r] ? left[l++] : right[r++];
+        }
+        while (l < left.length) {
+            merged[m++] = left[l++];
+        }
+        while (r < right.length) {
+            merged[m++] = right[r++];
+        }
+        return merged;
+    }
+
+    private static class Node {
+        private String label;
+        private int[] routeIds = NO_ROUTES;
+        private Map<Character, Node> children = new HashMap<>();
+
+        private Node(final String label) {
+            this.label = label;
+        }
+
+        private void insert(final String key, final int routeId) {
+            Node node = this;
+            int position = 0;
+            while (position < key.length()) {
+                final char first = key.charAt(position);
+                final Node child = node.children.get(first);
+                if (isNull(child)) {
+                    final Node leaf = new Node(key.substring(position));
+                    node.children.put(first, leaf);
+                    node = leaf;
+                    position = key.length();
+                } else {
+                    final int common = commonPrefixLength(child.label, key, position);
+                    if (common < child.label.length()) {
+                        child.split(common);
+                    }
+                    node = child;
+                    position += common;
+                }
+            }
+            node.routeIds = Arrays.copyOf(node.routeIds, node.routeIds.length + 1);
+            node.routeIds[node.routeIds.length - 1] = routeId;
+        }
+
+        private void split(final int at) {
+            final Node suffix = new Node(label.substring(at));
+            suffix.routeIds = routeIds;
+            suffix.children = children;
+            label = label.substring(0, at);
+            routeIds = NO_ROUTES;
+            children = new HashMap<>();
+            children.put(suffix.label.charAt(0), suffix);
+        }
+
+        private static int commonPrefixLength(final String label, final String key, final int offset) {
+            int length = 0;
+            while (length < label.length()
+                    && offset + length < key.length()
+                    && label.charAt(length) == key.charAt(offset + length)) {
+                length++;
+            }
+            return length;
+        }
+    }
+
+}
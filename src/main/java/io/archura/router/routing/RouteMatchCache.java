@@ -0,0 +1,132 @@
+package io.archura.router.routing;
+
+import io.archura.router.cache.LruCache;
+import io.archura.router.config.GlobalConfiguration;
+import io.archura.router.configuration.event.GlobalConfigurationChangedEvent;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Caches the route matched for a request, including the requests that matched no route.
+ * The key consists of the route matching configuration, the HTTP method, the request URI,
+ * and only the header and query values that the match configurations of the routes refer to.
+ * The cache is disabled if 'archura.route.match.cache.size' is 0, and it is cleared when the configuration changes.
+ * When the cache is full, a new match is cached only if its key is requested more often than the least recently used key,
+ * so a scan of unique URIs does not evict the matches of the frequent requests.
+ */
+@Slf4j
+@Component
+public class RouteMatchCache implements ApplicationListener<GlobalConfigurationChangedEvent> {
+
+    private static final char SEPARATOR = '\n';
+    private static final char ABSENT = '-';
+    private static final char LENGTH_SEPARATOR = ':';
+
+    private final LruCache<Key, Optional<GlobalConfiguration.RouteConfiguration>> cache;
+
+    public RouteMatchCache(final GlobalConfiguration globalConfiguration) {
+        final int size = globalConfiguration.getRouteMatchCacheSize();
+        this.cache = size > 0 ? new LruCache<>(size, true) : null;
+    }
+
+    /**
+     * Returns the cached route for the request, or runs the matcher and caches its result.
+     */
+    public Optional<GlobalConfiguration.RouteConfiguration> find(
+            final GlobalConfiguration.RouteMatchingFilterConfiguration configuration,
+            final HttpServletRequest httpServletRequest,
+            final Map<String, String> requestHeaders,
+            final Supplier<Optional<GlobalConfiguration.RouteConfiguration>> matcher
+    ) {
+        if (isNull(cache)) {
+            return matcher.get();
+        }
+        final Key key = new Key(configuration, createRequestKey(configuration, httpServletRequest, requestHeaders));
+        return cache.get(key, k -> matcher.get());
+    }
+
+    @Override
+    public void onApplicationEvent(final GlobalConfigurationChangedEvent event) {
+        if (nonNull(cache)) {
+            log.debug("Configuration changed, clearing route match cache, hits: {}, misses: {}, evictions: {}, rejections: {}",
+                    getHits(), getMisses(), getEvictions(), getRejections());
+            cache.clear();
+        }
+    }
+
+    public long getHits() {
+        return nonNull(cache) ? cache.getHits() : 0;
+    }
+
+    public long getMisses() {
+        return nonNull(cache) ? cache.getMisses() : 0;
+    }
+
+    public long getEvictions() {
+        return nonNull(cache) ? cache.getEvictions() : 0;
+    }
+
+    public long getRejections() {
+        return nonNull(cache) ? cache.getRejections() : 0;
+    }
+
+    public long getSize() {
+        return nonNull(cache) ? cache.size() : 0;
+    }
+
+    private String createRequestKey(
+            final GlobalConfiguration.RouteMatchingFilterConfiguration configuration,
+            final HttpServletRequest httpServletRequest,
+            final Map<String, String> requestHeaders
+    ) {
+        final StringBuilder requestKey = new StringBuilder(128)
+                .append(httpServletRequest.getMethod())
+                .append(SEPARATOR)
+                .append(httpServletRequest.getRequestURI());
+        for (String headerName : configuration.getMatchHeaderNames()) {
+            append(requestKey, requestHeaders.get(headerName));
+        }
+        if (!configuration.getMatchQueryNames().isEmpty()) {
+            final Map<String, String[]> parameters = httpServletRequest.getParameterMap();
+            for (String queryName : configuration.getMatchQueryNames()) {
+                append(requestKey, parameters.containsKey(queryName) ? httpServletRequest.getParameter(queryName) : null);
+            }
+        }
+        return requestKey.toString();
+    }
+
+    private void append(final StringBuilder requestKey, final String value) {
+        // values are length prefixed, so a value containing the separator can not collide with another key
+        requestKey.append(SEPARATOR);
+        if (isNull(value)) {
+            requestKey.append(ABSENT);
+        } else {
+            requestKey.append(value.length()).append(LENGTH_SEPARATOR).append(value);
+        }
+    }
+
+    /**
+     * Cache key, configurations are compared by identity since a changed configuration is a new object.
+     */
+    private record Key(GlobalConfiguration.RouteMatchingFilterConfiguration configuration, String request) {
+        @Override
+        public boolean equals(final Object other) {
+            return other instanceof Key key && configuration == key.configuration && request.equals(key.request);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(configuration) + request.hashCode();
+        }
+    }
+
+}
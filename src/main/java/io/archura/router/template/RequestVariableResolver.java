@@ -0,0 +1,162 @@
+package io.archura.router.template;
+
+import io.archura.router.config.GlobalConfiguration;
+import io.archura.router.context.RequestContext;
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Resolves the template variables of the current request on demand.
+ * The 'request.*' variables are read from the request when they are asked for,
+ * 'request.header.*' variables see the headers set by the header filters but never the headers of the route's map configuration,
+ * the 'match.*' and 'extract.*' variables are captured from the current route's match and extract configurations
+ * the first time one of them is asked for, routes without templates do not pay for any of them.
+ */
+public class RequestVariableResolver implements Function<String, String> {
+
+    private static final String REQUEST_HEADER_PREFIX = "request.header.";
+    private static final String MATCH_PREFIX = "match.";
+    private static final String EXTRACT_PREFIX = "extract.";
+
+    private final RequestContext requestContext;
+    private final HttpServletRequest httpServletRequest;
+    private final GlobalConfiguration.RouteConfiguration routeConfiguration;
+    private Map<String, String> matchVariables;
+    private Map<String, String> extractVariables;
+
+    public RequestVariableResolver(
+            final RequestContext requestContext,
+            final GlobalConfiguration.RouteConfiguration routeConfiguration
+    ) {
+        this.requestContext = requestContext;
+        this.httpServletRequest = requestContext.getHttpServletRequest();
+        this.routeConfiguration = routeConfiguration;
+    }
+
+    @Override
+    public String apply(final String name) {
+        return switch (name) {
+            case "request.path" -> httpServletRequest.getRequestURI();
+            case "request.method" -> httpServletRequest.getMethod();
+            case "request.query" -> isNull(httpServletRequest.getQueryString()) ? "" : httpServletRequest.getQueryString();
+            case "request.domain.name" -> nonNull(requestContext.getDomain()) ? requestContext.getDomain().getName() : null;
+            case "request.tenant.name" -> nonNull(requestContext.getTenant()) ? requestContext.getTenant().getName() : null;
+            case "request.route.name" -> nonNull(routeConfiguration) ? routeConfiguration.getName() : null;
+            default -> resolvePrefixed(name);
+        };
+    }
+
+    private String resolvePrefixed(final String name) {
+        if (name.startsWith(REQUEST_HEADER_PREFIX)) {
+            return requestContext.getHeaders().get(name.substring(REQUEST_HEADER_PREFIX.length()));
+        }
+        if (name.startsWith(MATCH_PREFIX)) {
+            return getMatchVariables().get(name);
+        }
+        if (name.startsWith(EXTRACT_PREFIX)) {
+            return getExtractVariables().get(name);
+        }
+        return null;
+    }
+
+    private Map<String, String> getMatchVariables() {
+        if (isNull(matchVariables)) {
+            matchVariables = new HashMap<>();
+            if (nonNull(routeConfiguration) && nonNull(routeConfiguration.getMatchConfiguration())) {
+                final GlobalConfiguration.MatchConfiguration matchConfiguration = routeConfiguration.getMatchConfiguration();
+                capture(MATCH_PREFIX, matchConfiguration.getPathConfiguration(), matchConfiguration.getHeaderConfiguration(),
+                        matchConfiguration.getQueryConfiguration(), matchVariables);
+            }
+        }
+        return matchVariables;
+    }
+
+    private Map<String, String> getExtractVariables() {
+        if (isNull(extractVariables)) {
+            extractVariables = new HashMap<>();
+            if (nonNull(routeConfiguration) && nonNull(routeConfiguration.getExtractConfiguration())) {
+                final GlobalConfiguration.ExtractConfiguration extractConfiguration = routeConfiguration.getExtractConfiguration();
+                capture(EXTRACT_PREFIX, extractConfiguration.getPathConfiguration(), extractConfiguration.getHeaderConfiguration(),
+                        extractConfiguration.getQueryConfiguration(), extractVariables);
+            }
+        }
+        return extractVariables;
+    }
+
+    private void capture(
+            final String prefix,
+            final List<GlobalConfiguration.PathConfiguration> pathConfigurations,
+            final List<GlobalConfiguration.HeaderConfiguration> headerConfigurations,
+            final List<GlobalConfiguration.QueryConfiguration> queryConfigurations,
+            final Map<String, String> variables
+    ) {
+        if (nonNull(pathConfigurations)) {
+            for (GlobalConfiguration.PathConfiguration pathConfiguration : pathConfigurations) {
+                if (nonNull(pathConfiguration)) {
+                    final String input = httpServletRequest.getRequestURI();
+                    final Pattern pattern = getPattern(pathConfiguration, pathConfiguration.getRegex());
+                    capture(pattern, input, pathConfiguration.getCaptureGroups(), prefix + "path", prefix + "path.", variables);
+                }
+            }
+        }
+        if (nonNull(headerConfigurations)) {
+            final Map<String, String> requestHeaders = requestContext.getHeaders();
+            for (GlobalConfiguration.HeaderConfiguration headerConfiguration : headerConfigurations) {
+                if (nonNull(headerConfiguration) && requestHeaders.containsKey(headerConfiguration.getName())) {
+                    final String input = requestHeaders.get(headerConfiguration.getName());
+                    final Pattern pattern = getPattern(headerConfiguration, headerConfiguration.getRegex());
+                    capture(pattern, input, headerConfiguration.getCaptureGroups(),
+                            prefix + "header." + headerConfiguration.getName(), prefix + "header.", variables);
+                }
+            }
+        }
+        if (nonNull(queryConfigurations)) {
+            for (GlobalConfiguration.QueryConfiguration queryConfiguration : queryConfigurations) {
+                if (nonNull(queryConfiguration) && httpServletRequest.getParameterMap().containsKey(queryConfiguration.getName())) {
+                    final String input = httpServletRequest.getParameter(queryConfiguration.getName());
+                    final Pattern pattern = getPattern(queryConfiguration, queryConfiguration.getRegex());
+                    capture(pattern, input, queryConfiguration.getCaptureGroups(),
+                            prefix + "query." + queryConfiguration.getName(), prefix + "query.", variables);
+                }
+            }
+        }
+    }
+
+    private void capture(
+            final Pattern pattern,
+            final String input,
+            final List<String> captureGroups,
+            final String wholeMatchName,
+            final String groupPrefix,
+            final Map<String, String> variables
+    ) {
+        final Matcher matcher = pattern.matcher(input);
+        if (matcher.matches()) {
+            if (isNull(captureGroups) || captureGroups.isEmpty()) {
+                variables.put(wholeMatchName, matcher.group(0));
+            } else {
+                for (String group : captureGroups) {
+                    variables.put(groupPrefix + group, matcher.group(group));
+                }
+            }
+        }
+    }
+
+    private Pattern getPattern(
+            final GlobalConfiguration.PatternHolder patternHolder,
+            final String regex
+    ) {
+        final Pattern pattern = patternHolder.getPattern();
+        return isNull(pattern) ? Pattern.compile(regex) : pattern;
+    }
+
+}
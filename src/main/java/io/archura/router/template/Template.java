@@ -0,0 +1,128 @@
+package io.archura.router.template;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Template text compiled into literal and variable segments.
+ * i.e.
+ * text: "http://localhost:9020${request.path}?${request.query}"
+ * segments: "http://localhost:9020", ${request.path}, "?", ${request.query}
+ * Rendering appends the segments in one pass, variables without a value are rendered as they are written.
+ */
+public class Template {
+
+    private static final String VARIABLE_START = "${";
+    private static final String VARIABLE_END = "}";
+    private static final int ESTIMATED_VARIABLE_LENGTH = 16;
+
+    private final String text;
+    private final String[] segments;
+    private final boolean[] variables;
+    private final int literalLength;
+    private final Set<String> variableNames;
+
+    private Template(final String text, final List<String> segments, final List<Boolean> variables) {
+        this.text = text;
+        this.segments = segments.toArray(new String[0]);
+        this.variables = new boolean[variables.size()];
+        int length = 0;
+        final Set<String> names = new LinkedHashSet<>();
+        for (int i = 0; i < this.variables.length; i++) {
+            this.variables[i] = variables.get(i);
+            if (this.variables[i]) {
+                names.add(this.segments[i]);
+            } else {
+                length += this.segments[i].length();
+            }
+        }
+        this.literalLength = length;
+        this.variableNames = Collections.unmodifiableSet(names);
+    }
+
+    /**
+     * Compiles the text into a template, a null text is compiled into an empty template.
+     */
+    public static Template compile(final String text) {
+        final List<String> segments = new ArrayList<>();
+        final List<Boolean> variables = new ArrayList<>();
+        if (isNull(text)) {
+            return new Template(null, segments, variables);
+        }
+        int position = 0;
+        while (position < text.length()) {
+            final int start = text.indexOf(VARIABLE_START, position);
+            final int end = start < 0 ? -1 : text.indexOf(VARIABLE_END, start + VARIABLE_START.length());
+            if (start < 0 || end < 0) {
+                segments.add(text.substring(position));
+                variables.add(false);
+                break;
+            }
+            if (start > position) {
+                segments.add(text.substring(position, start));
+                variables.add(false);
+            }
+            segments.add(text.substring(start + VARIABLE_START.length(), end));
+            variables.add(true);
+            position = end + VARIABLE_END.length();
+        }
+        return new Template(text, segments, variables);
+    }
+
+    /**
+     * Renders the template, the resolver returns the value of a variable or null if the variable has no value.
+     */
+    public String render(final Function<String, String> resolver) {
+        return render(resolver, true);
+    }
+
+    /**
+     * Renders the template, returns null if any of the variables has no value.
+     */
+    public String renderIfResolved(final Function<String, String> resolver) {
+        return render(resolver, false);
+    }
+
+    private String render(final Function<String, String> resolver, final boolean keepUnresolved) {
+        if (isNull(text) || variableNames.isEmpty()) {
+            return text;
+        }
+        final StringBuilder rendered = new StringBuilder(literalLength + variableNames.size() * ESTIMATED_VARIABLE_LENGTH);
+        for (int i = 0; i < segments.length; i++) {
+            if (variables[i]) {
+                final String value = resolver.apply(segments[i]);
+                if (nonNull(value)) {
+                    rendered.append(value);
+                } else if (keepUnresolved) {
+                    rendered.append(VARIABLE_START).append(segments[i]).append(VARIABLE_END);
+                } else {
+                    return null;
+                }
+            } else {
+                rendered.append(segments[i]);
+            }
+        }
+        return rendered.toString();
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public Set<String> getVariableNames() {
+        return variableNames;
+    }
+
+    @Override
+    public String toString() {
+        return String.valueOf(text);
+    }
+
+}
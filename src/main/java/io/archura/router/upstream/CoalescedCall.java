@@ -0,0 +1,36 @@
+package io.archura.router.upstream;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Participation of a request in a downstream call shared by identical concurrent requests.
+ * The leader sends the downstream request, the other requests wait for the shared response.
+ * The shared response is empty if the leader could not share it, i.e. its body was too large,
+ * then the waiting requests send their own downstream requests.
+ */
+public class CoalescedCall {
+
+    private final String key;
+    private final boolean leader;
+    private final CompletableFuture<Optional<CoalescedResponse>> response;
+
+    CoalescedCall(final String key, final boolean leader, final CompletableFuture<Optional<CoalescedResponse>> response) {
+        this.key = key;
+        this.leader = leader;
+        this.response = response;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public boolean isLeader() {
+        return leader;
+    }
+
+    CompletableFuture<Optional<CoalescedResponse>> getResponse() {
+        return response;
+    }
+
+}
@@ -0,0 +1,17 @@
+package io.archura.router.upstream;
+
+import java.net.http.HttpHeaders;
+
+/**
+ * Downstream response shared by the requests of a coalesced call, with its body buffered.
+ *
+ * @param status  status code of the downstream response
+ * @param headers headers of the downstream response
+ * @param body    buffered body of the downstream response
+ */
+public record CoalescedResponse(
+        int status,
+        HttpHeaders headers,
+        byte[] body
+) {
+}
@@ -0,0 +1,153 @@
+package io.archura.router.upstream;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.http.HttpHeaders;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Coalesces identical concurrent downstream requests of routes with a coalescing configuration into a single downstream call.
+ * The first request of a key becomes the leader of the call, requests with the same key arriving while the call is in flight
+ * wait for the leader's response instead of sending their own downstream requests.
+ * The key is removed when the leader shares its response, so later requests start a new call.
+ * Responses that belong to a single client, i.e. with cookies or private cache control, are not shared.
+ */
+@Slf4j
+@Component
+public class RequestCoalescer {
+
+    /**
+     * Request headers that identify the client, requests with them are only coalesced if they are part of the key.
+     */
+    public static final List<String> CREDENTIAL_HEADER_NAMES = List.of("Authorization", "Cookie");
+
+    private final Map<String, CompletableFuture<Optional<CoalescedResponse>>> calls = new ConcurrentHashMap<>();
+    private final LongAdder leaders = new LongAdder();
+    private final LongAdder followers = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+
+    /**
+     * Joins the call in flight for the key, or starts a new call with the caller as its leader.
+     */
+    public CoalescedCall join(final String key) {
+        final CompletableFuture<Optional<CoalescedResponse>> response = new CompletableFuture<>();
+        final CompletableFuture<Optional<CoalescedResponse>> inFlight = calls.putIfAbsent(key, response);
+        if (isNull(inFlight)) {
+            leaders.increment();
+            return new CoalescedCall(key, true, response);
+        }
+        followers.increment();
+        return new CoalescedCall(key, false, inFlight);
+    }
+
+    /**
+     * Shares the leader's response with the waiting requests.
+     */
+    public void share(final CoalescedCall call, final CoalescedResponse response) {
+        complete(call, Optional.of(response));
+    }
+
+    /**
+     * Lets the waiting requests send their own downstream requests, does nothing if the response was already shared.
+     */
+    public void abandon(final CoalescedCall call) {
+        complete(call, Optional.empty());
+    }
+
+    /**
+     * Fails the waiting requests with the failure of the leader's downstream request.
+     */
+    public void fail(final CoalescedCall call, final Throwable throwable) {
+        calls.remove(call.getKey(), call.getResponse());
+        call.getResponse().completeExceptionally(throwable);
+    }
+
+    /**
+     * Waits for the shared response, an empty response means the caller must send its own downstream request.
+     */
+    public Optional<CoalescedResponse> await(final CoalescedCall call, final long timeout) throws IOException, InterruptedException {
+        try {
+            final Optional<CoalescedResponse> response = call.getResponse().get(timeout, TimeUnit.MILLISECONDS);
+            if (response.isEmpty()) {
+                fallbacks.increment();
+            }
+            return response;
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException ioException ? ioException : new IOException(e.getCause());
+        } catch (TimeoutException e) {
+            log.debug("timed out waiting for coalesced call, key: '{}'", call.getKey());
+            fallbacks.increment();
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Returns a future of the shared response that does not block the caller, see {@link #await}.
+     * The future fails with the failure of the leader's downstream request.
+     */
+    public CompletableFuture<Optional<CoalescedResponse>> awaitAsync(final CoalescedCall call, final long timeout) {
+        return call.getResponse().copy()
+                .orTimeout(timeout, TimeUnit.MILLISECONDS)
+                .exceptionallyCompose(throwable -> throwable instanceof TimeoutException
+                        ? CompletableFuture.completedFuture(Optional.empty())
+                        : CompletableFuture.failedFuture(throwable))
+                .thenApply(response -> {
+                    if (response.isEmpty()) {
+                        fallbacks.increment();
+                    }
+                    return response;
+                });
+    }
+
+    /**
+     * Returns false if the response must not be shared with other clients,
+     * i.e. it sets cookies or its 'Cache-Control' is 'private' or 'no-store'.
+     */
+    public boolean isShareable(final HttpHeaders headers) {
+        if (headers.firstValue("set-cookie").isPresent()) {
+            return false;
+        }
+        for (String cacheControl : headers.allValues("cache-control")) {
+            for (String directive : cacheControl.split(",")) {
+                final String name = directive.trim().toLowerCase();
+                if (name.startsWith("private") || name.equals("no-store")) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    public long getLeaders() {
+        return leaders.sum();
+    }
+
+    public long getFollowers() {
+        return followers.sum();
+    }
+
+    /**
+     * Returns the number of waiting requests that sent their own downstream requests.
+     */
+    public long getFallbacks() {
+        return fallbacks.sum();
+    }
+
+    private void complete(final CoalescedCall call, final Optional<CoalescedResponse> response) {
+        calls.remove(call.getKey(), call.getResponse());
+        call.getResponse().complete(response);
+    }
+
+}
@@ -0,0 +1,88 @@
+package io.archura.router.upstream;
+
+import io.archura.router.config.GlobalConfiguration;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.ConnectException;
+import java.net.http.HttpClient;
+import java.net.http.HttpConnectTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+
+import static java.util.Objects.nonNull;
+
+/**
+ * HTTP client and load balancer of an upstream, created with the protocol version, the timeouts and the endpoints of the upstream configuration.
+ * Every upstream has its own connection pool and executor, so a slow upstream does not affect the others.
+ * Endpoints are health checked if the upstream has a health check configuration.
+ * Endpoints that refuse connections are ejected, until the health checks find them healthy again,
+ * or for {@link #EJECTION_TIME} if the upstream is not health checked.
+ */
+@Slf4j
+@Getter
+public class UpstreamClient {
+
+    static final Duration EJECTION_TIME = Duration.ofSeconds(10);
+
+    private final String name;
+    private final GlobalConfiguration.UpstreamConfiguration configuration;
+    private final HttpClient httpClient;
+    private final UpstreamLoadBalancer loadBalancer;
+    @Getter(AccessLevel.NONE)
+    private final UpstreamHealthChecker healthChecker;
+
+    UpstreamClient(final String name, final GlobalConfiguration.UpstreamConfiguration configuration) {
+        this.name = name;
+        this.configuration = configuration;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(configuration.getConnectTimeout()))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .version(configuration.getVersion())
+                .build();
+        this.loadBalancer = new UpstreamLoadBalancer(name, configuration.getEndpoints());
+        if (nonNull(configuration.getHealthCheck()) && !loadBalancer.getEndpoints().isEmpty()) {
+            this.healthChecker = new UpstreamHealthChecker(name, configuration.getHealthCheck(), httpClient, loadBalancer.getEndpoints());
+            this.healthChecker.start();
+        } else {
+            this.healthChecker = null;
+        }
+    }
+
+    /**
+     * Reports a failed request to the endpoint, if the request could not connect to the endpoint,
+     * the endpoint is ejected so the following requests are sent to the other endpoints.
+     */
+    public void reportFailure(final UpstreamEndpoint endpoint, final Throwable throwable) {
+        if (!isConnectFailure(throwable)) {
+            return;
+        }
+        if (nonNull(healthChecker)) {
+            healthChecker.eject(endpoint);
+        } else if (endpoint.eject(EJECTION_TIME.toNanos())) {
+            log.warn("Upstream '{}' endpoint '{}' is ejected for {} ms, connection failed", name, endpoint.getUrl(), EJECTION_TIME.toMillis());
+        }
+    }
+
+    /**
+     * Returns true if the request failed to connect, i.e. the request was not sent and can be sent to another endpoint.
+     */
+    public static boolean isConnectFailure(final Throwable throwable) {
+        final Throwable cause = throwable instanceof CompletionException && nonNull(throwable.getCause())
+                ? throwable.getCause()
+                : throwable;
+        return cause instanceof ConnectException || cause instanceof HttpConnectTimeoutException;
+    }
+
+    /**
+     * Stops the health checks, i.e. when the upstream is removed or its configuration is changed.
+     */
+    void close() {
+        if (nonNull(healthChecker)) {
+            healthChecker.stop();
+        }
+    }
+
+}
@@ -0,0 +1,76 @@
+package io.archura.router.upstream;
+
+import io.archura.router.config.GlobalConfiguration;
+import io.archura.router.configuration.event.GlobalConfigurationChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * HTTP clients of the upstreams in the global configuration.
+ * Clients are created once and reused, a client is created again only when the configuration of its upstream changes.
+ */
+@Slf4j
+@Component
+public class UpstreamClientRegistry implements ApplicationListener<GlobalConfigurationChangedEvent> {
+
+    private static final String DEFAULT_UPSTREAM = "default";
+
+    private final UpstreamClient defaultClient = new UpstreamClient(DEFAULT_UPSTREAM, new GlobalConfiguration.UpstreamConfiguration());
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile Map<String, UpstreamClient> clients = Map.of();
+
+    /**
+     * Returns the client of the upstream, or the default client if the upstream is not set or not configured.
+     */
+    public UpstreamClient getClient(final String upstream) {
+        if (isNull(upstream)) {
+            return defaultClient;
+        }
+        final UpstreamClient client = clients.get(upstream);
+        if (isNull(client)) {
+            log.debug("Upstream '{}' is not configured, default client will be used", upstream);
+            return defaultClient;
+        }
+        return client;
+    }
+
+    @Override
+    public void onApplicationEvent(final GlobalConfigurationChangedEvent event) {
+        update(event.getSource().getUpstreams());
+    }
+
+    private void update(final Map<String, GlobalConfiguration.UpstreamConfiguration> upstreams) {
+        lock.lock();
+        try {
+            final Map<String, UpstreamClient> updatedClients = new HashMap<>();
+            if (nonNull(upstreams)) {
+                for (Map.Entry<String, GlobalConfiguration.UpstreamConfiguration> entry : upstreams.entrySet()) {
+                    final UpstreamClient client = clients.get(entry.getKey());
+                    if (nonNull(client) && client.getConfiguration().equals(entry.getValue())) {
+                        updatedClients.put(entry.getKey(), client);
+                    } else if (nonNull(entry.getValue())) {
+                        log.debug("Creating client for upstream '{}', configuration: {}", entry.getKey(), entry.getValue());
+                        updatedClients.put(entry.getKey(), new UpstreamClient(entry.getKey(), entry.getValue()));
+                    }
+                }
+            }
+            for (Map.Entry<String, UpstreamClient> entry : clients.entrySet()) {
+                if (updatedClients.get(entry.getKey()) != entry.getValue()) {
+                    entry.getValue().close();
+                }
+            }
+            this.clients = Map.copyOf(updatedClients);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+}
@@ -0,0 +1,153 @@
+package io.archura.router.upstream;
+
+import io.archura.router.config.GlobalConfiguration;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.Objects.nonNull;
+
+/**
+ * Endpoint of an upstream with its health, in-flight request count and response latency EWMA (exponentially weighted moving average).
+ * Counters are updated without locks, they are read by the load balancer for every request.
+ * Endpoints are healthy until health checks or failed connections mark them unhealthy,
+ * endpoints of upstreams without health checks are ejected for a while instead.
+ */
+public class UpstreamEndpoint {
+
+    private static final double LATENCY_EWMA_WEIGHT = 0.2;
+    /**
+     * Latency used for the cost of endpoints without a latency sample, or faster than it,
+     * so the cost of an endpoint still grows with its in-flight requests.
+     */
+    private static final long MINIMUM_COST_LATENCY_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final String url;
+    private final int weight;
+    private final AtomicInteger inFlightRequests = new AtomicInteger();
+    private final AtomicLong latencyEwmaNanos = new AtomicLong();
+    private final AtomicInteger consecutiveSuccesses = new AtomicInteger();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile boolean healthy = true;
+    private volatile boolean ejected;
+    private volatile long ejectedUntilNanos;
+
+    UpstreamEndpoint(final GlobalConfiguration.EndpointConfiguration configuration) {
+        final String endpointUrl = configuration.getUrl();
+        this.url = endpointUrl.endsWith("/") ? endpointUrl.substring(0, endpointUrl.length() - 1) : endpointUrl;
+        this.weight = configuration.getWeight();
+    }
+
+    /**
+     * Replaces the scheme and authority of the mapped URL with the endpoint URL, path and query of the mapped URL are kept.
+     * i.e. endpoint: "http://10.0.0.1:8080", mapped URL: "http://orders/order/1?a=b" returns "http://10.0.0.1:8080/order/1?a=b"
+     */
+    public String resolve(final String mappedUrl) {
+        final URI uri = URI.create(mappedUrl);
+        final StringBuilder resolved = new StringBuilder(url);
+        if (nonNull(uri.getRawPath())) {
+            resolved.append(uri.getRawPath());
+        }
+        if (nonNull(uri.getRawQuery())) {
+            resolved.append('?').append(uri.getRawQuery());
+        }
+        return resolved.toString();
+    }
+
+    /**
+     * Records the time it took to receive the response headers.
+     */
+    public void recordLatency(final long latencyNanos) {
+        latencyEwmaNanos.accumulateAndGet(latencyNanos, (previous, sample) ->
+                previous == 0 ? sample : previous + Math.round((sample - previous) * LATENCY_EWMA_WEIGHT));
+    }
+
+    /**
+     * Releases the endpoint when the request is completed, the endpoint is acquired by the load balancer.
+     */
+    public void release() {
+        inFlightRequests.decrementAndGet();
+    }
+
+    /**
+     * Records the result of a health check, health changes after the threshold of consecutive results.
+     * Returns true if the health of the endpoint changed.
+     */
+    boolean recordHealthCheck(final boolean success, final int healthyThreshold, final int unhealthyThreshold) {
+        if (success) {
+            consecutiveFailures.set(0);
+            if (consecutiveSuccesses.incrementAndGet() >= healthyThreshold && !healthy) {
+                healthy = true;
+                return true;
+            }
+        } else {
+            consecutiveSuccesses.set(0);
+            if (consecutiveFailures.incrementAndGet() >= unhealthyThreshold && healthy) {
+                healthy = false;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Marks the endpoint unhealthy, returns true if the endpoint was healthy.
+     */
+    boolean markUnhealthy() {
+        consecutiveSuccesses.set(0);
+        final boolean wasHealthy = healthy;
+        healthy = false;
+        return wasHealthy;
+    }
+
+    /**
+     * Ejects the endpoint for the given time, returns true if the endpoint was healthy.
+     */
+    boolean eject(final long ejectionNanos) {
+        final boolean wasHealthy = isHealthy();
+        ejectedUntilNanos = System.nanoTime() + ejectionNanos;
+        ejected = true;
+        return wasHealthy;
+    }
+
+    void acquire() {
+        inFlightRequests.incrementAndGet();
+    }
+
+    /**
+     * Expected cost of sending a request, endpoints without a latency sample are compared by their in-flight requests,
+     * so an endpoint that does not answer stops being chosen once its requests pile up.
+     */
+    long cost() {
+        return (inFlightRequests.get() + 1L) * Math.max(latencyEwmaNanos.get(), MINIMUM_COST_LATENCY_NANOS);
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    public boolean isHealthy() {
+        if (ejected) {
+            if (System.nanoTime() - ejectedUntilNanos < 0) {
+                return false;
+            }
+            ejected = false;
+        }
+        return healthy;
+    }
+
+    public int getInFlightRequests() {
+        return inFlightRequests.get();
+    }
+
+    public long getLatencyEwmaNanos() {
+        return latencyEwmaNanos.get();
+    }
+
+}
@@ -0,0 +1,103 @@
+package io.archura.router.upstream;
+
+import io.archura.router.config.GlobalConfiguration;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Probes the endpoints of an upstream every 'interval' milliseconds on a virtual thread.
+ * An endpoint becomes unhealthy after 'unhealthyThreshold' consecutive failed probes,
+ * and healthy again after 'healthyThreshold' consecutive successful probes.
+ * Probes of the endpoints run in parallel, a probe fails if it does not respond with a status below 400 within 'timeout' milliseconds.
+ */
+@Slf4j
+class UpstreamHealthChecker {
+
+    private final String upstream;
+    private final GlobalConfiguration.HealthCheckConfiguration configuration;
+    private final HttpClient httpClient;
+    private final List<UpstreamEndpoint> endpoints;
+    private Thread thread;
+
+    UpstreamHealthChecker(
+            final String upstream,
+            final GlobalConfiguration.HealthCheckConfiguration configuration,
+            final HttpClient httpClient,
+            final List<UpstreamEndpoint> endpoints
+    ) {
+        this.upstream = upstream;
+        this.configuration = configuration;
+        this.httpClient = httpClient;
+        this.endpoints = endpoints;
+    }
+
+    void start() {
+        thread = Thread.ofVirtual().name("upstream-health-checker-" + upstream).start(this::run);
+    }
+
+    void stop() {
+        thread.interrupt();
+    }
+
+    /**
+     * Marks the endpoint unhealthy without waiting for the probes, i.e. when a request can not connect to it.
+     * The probes mark the endpoint healthy again when it recovers.
+     */
+    void eject(final UpstreamEndpoint endpoint) {
+        if (endpoint.markUnhealthy()) {
+            log.warn("Upstream '{}' endpoint '{}' is unhealthy, connection failed", upstream, endpoint.getUrl());
+        }
+    }
+
+    private void run() {
+        log.debug("Health checks started for upstream '{}', endpoints: {}", upstream, endpoints.size());
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                try (ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor()) {
+                    for (UpstreamEndpoint endpoint : endpoints) {
+                        executorService.submit(() -> check(endpoint));
+                    }
+                }
+                Thread.sleep(configuration.getInterval());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.debug("Health checks stopped for upstream '{}'", upstream);
+    }
+
+    private void check(final UpstreamEndpoint endpoint) {
+        boolean success;
+        try {
+            final HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create(endpoint.getUrl() + configuration.getPath()))
+                    .timeout(Duration.ofMillis(configuration.getTimeout()))
+                    .GET()
+                    .build();
+            final HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+            success = response.statusCode() < 400;
+        } catch (IOException | IllegalArgumentException e) {
+            success = false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (endpoint.recordHealthCheck(success, configuration.getHealthyThreshold(), configuration.getUnhealthyThreshold())) {
+            if (endpoint.isHealthy()) {
+                log.info("Upstream '{}' endpoint '{}' is healthy", upstream, endpoint.getUrl());
+            } else {
+                log.warn("Upstream '{}' endpoint '{}' is unhealthy", upstream, endpoint.getUrl());
+            }
+        }
+    }
+
+}
@@ -0,0 +1,116 @@
+package io.archura.router.upstream;
+
+import io.archura.router.config.GlobalConfiguration;
+import io.archura.router.upstream.exception.UpstreamUnavailableException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static java.util.Objects.nonNull;
+
+/**
+ * Power of two choices load balancer over the endpoints of an upstream.
+ * Two endpoints are sampled randomly in proportion to their weights,
+ * the one with the lower in-flight requests times latency EWMA is selected.
+ * Unhealthy endpoints and endpoints with a weight of 0 are not selected.
+ */
+public class UpstreamLoadBalancer {
+
+    private final String upstream;
+    private final UpstreamEndpoint[] endpoints;
+    private final int[] cumulativeWeights;
+
+    UpstreamLoadBalancer(final String upstream, final List<GlobalConfiguration.EndpointConfiguration> endpointConfigurations) {
+        this.upstream = upstream;
+        final List<UpstreamEndpoint> weightedEndpoints = new ArrayList<>();
+        if (nonNull(endpointConfigurations)) {
+            for (GlobalConfiguration.EndpointConfiguration endpointConfiguration : endpointConfigurations) {
+                if (nonNull(endpointConfiguration) && nonNull(endpointConfiguration.getUrl()) && endpointConfiguration.getWeight() > 0) {
+                    weightedEndpoints.add(new UpstreamEndpoint(endpointConfiguration));
+                }
+            }
+        }
+        this.endpoints = weightedEndpoints.toArray(UpstreamEndpoint[]::new);
+        this.cumulativeWeights = new int[endpoints.length];
+        int totalWeight = 0;
+        for (int i = 0; i < endpoints.length; i++) {
+            totalWeight += endpoints[i].getWeight();
+            cumulativeWeights[i] = totalWeight;
+        }
+    }
+
+    /**
+     * Selects a healthy endpoint and counts the request as in-flight on it, the endpoint must be released when the request is completed.
+     * Returns empty if the upstream has no endpoints, throws {@link UpstreamUnavailableException} if none of the endpoints is healthy.
+     */
+    public Optional<UpstreamEndpoint> select() {
+        return select(null);
+    }
+
+    /**
+     * Selects a healthy endpoint other than the excluded one, i.e. to retry a request that could not connect to the excluded endpoint.
+     */
+    public Optional<UpstreamEndpoint> select(final UpstreamEndpoint excluded) {
+        if (endpoints.length == 0) {
+            return Optional.empty();
+        }
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final int first = sampleHealthy(random, excluded);
+        if (first == -1) {
+            throw new UpstreamUnavailableException(upstream);
+        }
+        int second = sampleHealthy(random, excluded);
+        if (second == first) {
+            second = nextHealthy(first, excluded);
+        }
+        final UpstreamEndpoint endpoint = endpoints[first].cost() <= endpoints[second].cost() ? endpoints[first] : endpoints[second];
+        endpoint.acquire();
+        return Optional.of(endpoint);
+    }
+
+    /**
+     * Samples a healthy endpoint in proportion to the weights, falls back to scanning when the samples hit unhealthy endpoints.
+     * Returns -1 if none of the endpoints is healthy.
+     */
+    private int sampleHealthy(final ThreadLocalRandom random, final UpstreamEndpoint excluded) {
+        for (int attempt = 0; attempt < endpoints.length; attempt++) {
+            final int index = sample(random);
+            if (isSelectable(index, excluded)) {
+                return index;
+            }
+        }
+        final int index = nextHealthy(random.nextInt(endpoints.length), excluded);
+        return isSelectable(index, excluded) ? index : -1;
+    }
+
+    /**
+     * Returns the next healthy endpoint after the given one, or the given one if there is no other healthy endpoint.
+     */
+    private int nextHealthy(final int index, final UpstreamEndpoint excluded) {
+        for (int i = 1; i < endpoints.length; i++) {
+            final int next = (index + i) % endpoints.length;
+            if (isSelectable(next, excluded)) {
+                return next;
+            }
+        }
+        return index;
+    }
+
+    private boolean isSelectable(final int index, final UpstreamEndpoint excluded) {
+        return endpoints[index] != excluded && endpoints[index].isHealthy();
+    }
+
+    private int sample(final ThreadLocalRandom random) {
+        final int value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        final int index = Arrays.binarySearch(cumulativeWeights, value + 1);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    public List<UpstreamEndpoint> getEndpoints() {
+        return List.of(endpoints);
+    }
+
+}
@@ -0,0 +1,9 @@
+package io.archura.router.upstream.exception;
+
+public class UpstreamUnavailableException extends RuntimeException {
+
+    public UpstreamUnavailableException(final String upstream) {
+        super("Upstream '%s' has no healthy endpoints".formatted(upstream));
+    }
+
+}